@@ -26,7 +26,7 @@ Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
 
 package dev.flang.lsp.server;
 
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map.Entry;
 import java.util.function.BiFunction;
 import java.util.stream.Stream;
@@ -62,12 +62,13 @@ public class ASTWalker
   /**
    * depth first traversal, starting at feature
    * collects calls and features (=key) as well as their outer features (=value).
+   * items are compared by identity, there is no need to hash or compare the AST objects themselves.
    * @param start
    * @return
    */
   public static Stream<Entry<Object, AbstractFeature>> Traverse(AbstractFeature start)
   {
-    var result = new HashMap<Object, AbstractFeature>();
+    var result = new IdentityHashMap<Object, AbstractFeature>();
     TraverseFeature(start, (item, outer) -> {
       var isAlreadyPresent = result.containsKey(item);
       result.put(item, outer);
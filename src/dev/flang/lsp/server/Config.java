@@ -26,14 +26,17 @@ Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
 
 package dev.flang.lsp.server;
 
+import java.net.URI;
 import java.util.List;
 import java.util.concurrent.Future;
 
 import com.google.gson.JsonObject;
 
+import org.eclipse.lsp4j.MessageType;
 import org.eclipse.lsp4j.services.LanguageClient;
 
 import dev.flang.lsp.server.enums.Transport;
+import dev.flang.lsp.server.util.Log;
 
 public class Config
 {
@@ -42,6 +45,7 @@ public class Config
   private static Future<List<Object>> _configuration;
   private static LanguageClient _languageClient;
   private static Transport _transport = Transport.stdio;
+  private static List<URI> _workspaceRoots = List.of();
 
   public static LanguageClient languageClient()
   {
@@ -63,6 +67,19 @@ public class Config
     _transport = transport;
   }
 
+  /**
+   * @return the root folders of the workspace opened in the client
+   */
+  public static List<URI> workspaceRoots()
+  {
+    return _workspaceRoots;
+  }
+
+  public static void setWorkspaceRoots(List<URI> workspaceRoots)
+  {
+    _workspaceRoots = workspaceRoots;
+  }
+
   public static boolean DEBUG()
   {
     var debug = System.getenv("DEBUG");
@@ -73,6 +90,29 @@ public class Config
     return debug.toLowerCase().equals("true");
   }
 
+  /**
+   * the heap memory parse results may use before we start evicting them.
+   * can be set in megabytes via -Dfuzion.lsp.parserCacheBudget=<MB>,
+   * defaults to a quarter of the maximum heap size.
+   * @return budget in bytes
+   */
+  public static long ParserCacheBudget()
+  {
+    var budget = System.getProperty("fuzion.lsp.parserCacheBudget");
+    try
+      {
+        if (budget != null)
+          {
+            return Long.parseLong(budget.trim()) * 1024 * 1024;
+          }
+      }
+    catch (NumberFormatException e)
+      {
+        Log.message("invalid fuzion.lsp.parserCacheBudget: " + budget, MessageType.Warning);
+      }
+    return Runtime.getRuntime().maxMemory() / 4;
+  }
+
   public static void setConfiguration(Future<List<Object>> configuration)
   {
     _configuration = configuration;
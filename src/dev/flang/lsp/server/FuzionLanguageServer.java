@@ -26,6 +26,7 @@ Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
 
 package dev.flang.lsp.server;
 
+import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -33,11 +34,18 @@ import java.util.stream.Collectors;
 
 import org.eclipse.lsp4j.CodeLensOptions;
 import org.eclipse.lsp4j.CompletionOptions;
+import org.eclipse.lsp4j.DidChangeWatchedFilesRegistrationOptions;
 import org.eclipse.lsp4j.ExecuteCommandOptions;
+import org.eclipse.lsp4j.FileSystemWatcher;
 import org.eclipse.lsp4j.HoverOptions;
 import org.eclipse.lsp4j.InitializeParams;
 import org.eclipse.lsp4j.InitializeResult;
+import org.eclipse.lsp4j.InitializedParams;
+import org.eclipse.lsp4j.Registration;
+import org.eclipse.lsp4j.RegistrationParams;
 import org.eclipse.lsp4j.RenameOptions;
+import org.eclipse.lsp4j.SemanticTokensServerFull;
+import org.eclipse.lsp4j.SemanticTokensWithRegistrationOptions;
 import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.lsp4j.SignatureHelpOptions;
 import org.eclipse.lsp4j.TextDocumentSyncKind;
@@ -46,6 +54,9 @@ import org.eclipse.lsp4j.services.TextDocumentService;
 import org.eclipse.lsp4j.services.WorkspaceService;
 
 import dev.flang.lsp.server.enums.Commands;
+import dev.flang.lsp.server.feature.SemanticTokens;
+import dev.flang.lsp.server.feature.WorkspaceSymbols;
+import dev.flang.lsp.server.util.Concurrency;
 
 /**
  * does the initialization of language server features
@@ -53,11 +64,37 @@ import dev.flang.lsp.server.enums.Commands;
 public class FuzionLanguageServer implements LanguageServer
 {
 
+  /**
+   * NYI remove when lsp4j knows inlay hints, see InlayHints
+   */
+  static class ServerCapabilitiesWithInlayHints extends ServerCapabilities
+  {
+    private Boolean inlayHintProvider;
+
+    public void setInlayHintProvider(Boolean inlayHintProvider)
+    {
+      this.inlayHintProvider = inlayHintProvider;
+    }
+
+    public Boolean getInlayHintProvider()
+    {
+      return inlayHintProvider;
+    }
+  }
+
+  /**
+   * true iff the client can register the file watcher, see initialized
+   */
+  private boolean canWatchFiles = false;
+
   @Override
   public CompletableFuture<InitializeResult> initialize(InitializeParams params)
   {
-    final InitializeResult res = new InitializeResult(new ServerCapabilities());
-    var capabilities = res.getCapabilities();
+    var capabilities = new ServerCapabilitiesWithInlayHints();
+    final InitializeResult res = new InitializeResult(capabilities);
+
+    Config.setWorkspaceRoots(WorkspaceRoots(params));
+    canWatchFiles = CanWatchFiles(params);
 
     initializeCompletion(capabilities);
     initializeHover(capabilities);
@@ -68,11 +105,101 @@ public class FuzionLanguageServer implements LanguageServer
     initializeDocumentSymbol(capabilities);
     initializeCodeLens(capabilities);
     initializeSignatureHelp(capabilities);
+    initializeSemanticTokens(capabilities);
+    initializeWorkspaceSymbol(capabilities);
+    initializeFoldingRange(capabilities);
+    initializeDocumentHighlight(capabilities);
+    initializeCallHierarchy(capabilities);
+    initializeTypeHierarchy(capabilities);
+    initializeInlayHint(capabilities);
 
     capabilities.setTextDocumentSync(TextDocumentSyncKind.Full);
     return CompletableFuture.supplyAsync(() -> res);
   }
 
+  @Override
+  public void initialized(InitializedParams params)
+  {
+    if (canWatchFiles && Config.languageClient() != null)
+      {
+        registerFileWatcher();
+      }
+    Concurrency.RunInBackground(() -> WorkspaceSymbols.IndexWorkspace());
+  }
+
+  /**
+   * ask the client to notify us about changes of fuzion files on disk,
+   * see FuzionWorkspaceService.didChangeWatchedFiles
+   */
+  private void registerFileWatcher()
+  {
+    var options = new DidChangeWatchedFilesRegistrationOptions(List.of(new FileSystemWatcher("**/*.fz")));
+    Config.languageClient().registerCapability(new RegistrationParams(
+      List.of(new Registration("fuzion.watchedFiles", "workspace/didChangeWatchedFiles", options))));
+  }
+
+  private static boolean CanWatchFiles(InitializeParams params)
+  {
+    var workspace = params.getCapabilities() == null ? null: params.getCapabilities().getWorkspace();
+    return workspace != null
+      && workspace.getDidChangeWatchedFiles() != null
+      && Boolean.TRUE.equals(workspace.getDidChangeWatchedFiles().getDynamicRegistration());
+  }
+
+  private List<URI> WorkspaceRoots(InitializeParams params)
+  {
+    if (params.getWorkspaceFolders() != null)
+      {
+        return params.getWorkspaceFolders()
+          .stream()
+          .map(folder -> Util.toURI(folder.getUri()))
+          .collect(Collectors.toList());
+      }
+    if (params.getRootUri() != null)
+      {
+        return List.of(Util.toURI(params.getRootUri()));
+      }
+    return List.of();
+  }
+
+  private void initializeInlayHint(ServerCapabilitiesWithInlayHints capabilities)
+  {
+    capabilities.setInlayHintProvider(true);
+  }
+
+  private void initializeTypeHierarchy(ServerCapabilities capabilities)
+  {
+    // the requests of LSP 3.17 are served, see FuzionTextDocumentService.prepareTypeHierarchy
+    capabilities.setTypeHierarchyProvider(true);
+    capabilities.setImplementationProvider(true);
+  }
+
+  private void initializeCallHierarchy(ServerCapabilities capabilities)
+  {
+    capabilities.setCallHierarchyProvider(true);
+  }
+
+  private void initializeDocumentHighlight(ServerCapabilities capabilities)
+  {
+    capabilities.setDocumentHighlightProvider(true);
+  }
+
+  private void initializeFoldingRange(ServerCapabilities capabilities)
+  {
+    capabilities.setFoldingRangeProvider(true);
+  }
+
+  private void initializeWorkspaceSymbol(ServerCapabilities capabilities)
+  {
+    capabilities.setWorkspaceSymbolProvider(true);
+  }
+
+  private void initializeSemanticTokens(ServerCapabilities capabilities)
+  {
+    capabilities.setSemanticTokensProvider(
+      new SemanticTokensWithRegistrationOptions(SemanticTokens.Legend(), new SemanticTokensServerFull(true), true));
+  }
+
   private void initializeSignatureHelp(ServerCapabilities capabilities)
   {
     // NYI which characters should trigger?
@@ -81,8 +208,7 @@ public class FuzionLanguageServer implements LanguageServer
 
   private void initializeCodeLens(ServerCapabilities capabilities)
   {
-    // NYI implement code lens resolve
-    capabilities.setCodeLensProvider(new CodeLensOptions(false));
+    capabilities.setCodeLensProvider(new CodeLensOptions(true));
   }
 
   private void initializeDocumentSymbol(ServerCapabilities capabilities)
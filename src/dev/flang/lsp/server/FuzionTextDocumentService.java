@@ -31,6 +31,12 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
+import org.eclipse.lsp4j.CallHierarchyIncomingCall;
+import org.eclipse.lsp4j.CallHierarchyIncomingCallsParams;
+import org.eclipse.lsp4j.CallHierarchyItem;
+import org.eclipse.lsp4j.CallHierarchyOutgoingCall;
+import org.eclipse.lsp4j.CallHierarchyOutgoingCallsParams;
+import org.eclipse.lsp4j.CallHierarchyPrepareParams;
 import org.eclipse.lsp4j.CodeAction;
 import org.eclipse.lsp4j.CodeActionParams;
 import org.eclipse.lsp4j.CodeLens;
@@ -44,9 +50,14 @@ import org.eclipse.lsp4j.DidChangeTextDocumentParams;
 import org.eclipse.lsp4j.DidCloseTextDocumentParams;
 import org.eclipse.lsp4j.DidOpenTextDocumentParams;
 import org.eclipse.lsp4j.DidSaveTextDocumentParams;
+import org.eclipse.lsp4j.DocumentHighlight;
+import org.eclipse.lsp4j.DocumentHighlightParams;
 import org.eclipse.lsp4j.DocumentSymbol;
 import org.eclipse.lsp4j.DocumentSymbolParams;
+import org.eclipse.lsp4j.FoldingRange;
+import org.eclipse.lsp4j.FoldingRangeRequestParams;
 import org.eclipse.lsp4j.Hover;
+import org.eclipse.lsp4j.ImplementationParams;
 import org.eclipse.lsp4j.HoverParams;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.LocationLink;
@@ -55,24 +66,38 @@ import org.eclipse.lsp4j.PrepareRenameResult;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.ReferenceParams;
 import org.eclipse.lsp4j.RenameParams;
+import org.eclipse.lsp4j.SemanticTokensDelta;
+import org.eclipse.lsp4j.SemanticTokensDeltaParams;
+import org.eclipse.lsp4j.SemanticTokensParams;
+import org.eclipse.lsp4j.SemanticTokensRangeParams;
 import org.eclipse.lsp4j.SignatureHelp;
 import org.eclipse.lsp4j.SignatureHelpParams;
 import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.TextDocumentPositionParams;
+import org.eclipse.lsp4j.TypeHierarchyItem;
 import org.eclipse.lsp4j.WorkspaceEdit;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.jsonrpc.services.JsonRequest;
 import org.eclipse.lsp4j.services.TextDocumentService;
 
+import dev.flang.lsp.server.feature.CallHierarchy;
 import dev.flang.lsp.server.feature.CodeLenses;
 import dev.flang.lsp.server.feature.Completion;
 import dev.flang.lsp.server.feature.Definition;
 import dev.flang.lsp.server.feature.Diagnostics;
+import dev.flang.lsp.server.feature.DocumentHighlights;
 import dev.flang.lsp.server.feature.DocumentSymbols;
+import dev.flang.lsp.server.feature.FoldingRanges;
 import dev.flang.lsp.server.feature.Hovering;
+import dev.flang.lsp.server.feature.InlayHints;
 import dev.flang.lsp.server.feature.References;
 import dev.flang.lsp.server.feature.Rename;
+import dev.flang.lsp.server.feature.SemanticTokens;
 import dev.flang.lsp.server.feature.SignatureHelper;
+import dev.flang.lsp.server.feature.TypeHierarchy;
 import dev.flang.lsp.server.util.Concurrency;
 import dev.flang.lsp.server.util.Debouncer;
+import dev.flang.lsp.server.util.FuzionParser;
 import dev.flang.lsp.server.util.LSP4jUtils;
 
 public class FuzionTextDocumentService implements TextDocumentService
@@ -84,7 +109,7 @@ public class FuzionTextDocumentService implements TextDocumentService
     var uri = Util.toURI(textDocument.getUri());
     var text = textDocument.getText();
 
-    SourceText.setText(uri, text);
+    SourceText.open(uri, text);
     afterSetText(uri);
   }
 
@@ -92,7 +117,7 @@ public class FuzionTextDocumentService implements TextDocumentService
 
   private void afterSetText(URI uri)
   {
-    debouncer.debounce(Void.class, new Runnable() {
+    debouncer.debounce(uri, new Runnable() {
       @Override
       public void run()
       {
@@ -122,6 +147,11 @@ public class FuzionTextDocumentService implements TextDocumentService
   @Override
   public void didClose(DidCloseTextDocumentParams params)
   {
+    var uri = LSP4jUtils.getUri(params.getTextDocument());
+    debouncer.cancel(uri);
+    SourceText.close(uri);
+    FuzionParser.Close(uri);
+    SemanticTokens.Forget(uri);
   }
 
   @Override
@@ -194,10 +224,100 @@ public class FuzionTextDocumentService implements TextDocumentService
     return Concurrency.Compute(() -> CodeLenses.getCodeLenses(params));
   }
 
+  @Override
+  public CompletableFuture<CodeLens> resolveCodeLens(CodeLens unresolved)
+  {
+    return Concurrency.Compute(() -> CodeLenses.resolveCodeLens(unresolved));
+  }
+
   @Override
   public CompletableFuture<SignatureHelp> signatureHelp(SignatureHelpParams params)
   {
     return Concurrency.Compute(() -> SignatureHelper.getSignatureHelp(params));
   }
 
+  @JsonRequest(value = "textDocument/prepareTypeHierarchy", useSegment = false)
+  public CompletableFuture<List<TypeHierarchyItem>> prepareTypeHierarchy(TextDocumentPositionParams params)
+  {
+    return Concurrency.Compute(() -> TypeHierarchy.getPrepareTypeHierarchy(params));
+  }
+
+  @JsonRequest(value = "typeHierarchy/supertypes", useSegment = false)
+  public CompletableFuture<List<TypeHierarchyItem>> typeHierarchySupertypes(
+    TypeHierarchy.TypeHierarchySupertypesParams params)
+  {
+    return Concurrency.Compute(() -> TypeHierarchy.getSupertypes(params));
+  }
+
+  @JsonRequest(value = "typeHierarchy/subtypes", useSegment = false)
+  public CompletableFuture<List<TypeHierarchyItem>> typeHierarchySubtypes(
+    TypeHierarchy.TypeHierarchySubtypesParams params)
+  {
+    return Concurrency.Compute(() -> TypeHierarchy.getSubtypes(params));
+  }
+
+  @Override
+  public CompletableFuture<Either<List<? extends Location>, List<? extends LocationLink>>> implementation(
+    ImplementationParams params)
+  {
+    return Concurrency.Compute(() -> Either.forLeft(TypeHierarchy.getImplementations(params)));
+  }
+
+  @Override
+  public CompletableFuture<List<CallHierarchyItem>> prepareCallHierarchy(CallHierarchyPrepareParams params)
+  {
+    return Concurrency.Compute(() -> CallHierarchy.getCallHierarchyItems(params));
+  }
+
+  @Override
+  public CompletableFuture<List<CallHierarchyIncomingCall>> callHierarchyIncomingCalls(
+    CallHierarchyIncomingCallsParams params)
+  {
+    return Concurrency.Compute(() -> CallHierarchy.getIncomingCalls(params));
+  }
+
+  @Override
+  public CompletableFuture<List<CallHierarchyOutgoingCall>> callHierarchyOutgoingCalls(
+    CallHierarchyOutgoingCallsParams params)
+  {
+    return Concurrency.Compute(() -> CallHierarchy.getOutgoingCalls(params));
+  }
+
+  @Override
+  public CompletableFuture<List<? extends DocumentHighlight>> documentHighlight(DocumentHighlightParams params)
+  {
+    return Concurrency.Compute(() -> DocumentHighlights.getDocumentHighlights(params));
+  }
+
+  @JsonRequest(value = "textDocument/inlayHint", useSegment = false)
+  public CompletableFuture<List<InlayHints.InlayHint>> inlayHint(InlayHints.InlayHintParams params)
+  {
+    return Concurrency.Compute(() -> InlayHints.getInlayHints(params));
+  }
+
+  @Override
+  public CompletableFuture<List<FoldingRange>> foldingRange(FoldingRangeRequestParams params)
+  {
+    return Concurrency.Compute(() -> FoldingRanges.getFoldingRanges(params));
+  }
+
+  @Override
+  public CompletableFuture<org.eclipse.lsp4j.SemanticTokens> semanticTokensFull(SemanticTokensParams params)
+  {
+    return Concurrency.Compute(() -> SemanticTokens.getSemanticTokens(params));
+  }
+
+  @Override
+  public CompletableFuture<Either<org.eclipse.lsp4j.SemanticTokens, SemanticTokensDelta>> semanticTokensFullDelta(
+    SemanticTokensDeltaParams params)
+  {
+    return Concurrency.Compute(() -> SemanticTokens.getSemanticTokensDelta(params));
+  }
+
+  @Override
+  public CompletableFuture<org.eclipse.lsp4j.SemanticTokens> semanticTokensRange(SemanticTokensRangeParams params)
+  {
+    return Concurrency.Compute(() -> SemanticTokens.getSemanticTokensRange(params));
+  }
+
 }
@@ -26,14 +26,24 @@ Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
 
 package dev.flang.lsp.server;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.lsp4j.DidChangeConfigurationParams;
 import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
 import org.eclipse.lsp4j.ExecuteCommandParams;
+import org.eclipse.lsp4j.FileChangeType;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.WorkspaceSymbolParams;
 import org.eclipse.lsp4j.services.WorkspaceService;
 
 import dev.flang.lsp.server.feature.Command;
+import dev.flang.lsp.server.feature.WorkspaceSymbols;
+import dev.flang.lsp.server.util.CallGraph;
+import dev.flang.lsp.server.util.Concurrency;
+import dev.flang.lsp.server.util.IO;
+import dev.flang.lsp.server.util.InheritanceIndex;
+import dev.flang.lsp.server.util.SymbolIndex;
 
 public class FuzionWorkspaceService implements WorkspaceService
 {
@@ -48,8 +58,37 @@ public class FuzionWorkspaceService implements WorkspaceService
   @Override
   public void didChangeWatchedFiles(DidChangeWatchedFilesParams params)
   {
-    // TODO Auto-generated method stub
+    params.getChanges().forEach(change -> {
+      var uri = Util.toURI(change.getUri());
+      if (SourceText.isOpen(uri))
+        {
+          return;
+        }
+      // forget the text read from disk
+      SourceText.close(uri);
+      if (change.getType() != FileChangeType.Changed)
+        {
+          IO.InvalidateWorkspaceFiles();
+        }
+      // the edges are added again once the file is parsed
+      CallGraph.Remove(uri);
+      InheritanceIndex.Remove(uri);
+      if (change.getType() == FileChangeType.Deleted)
+        {
+          SymbolIndex.Remove(uri);
+        }
+      else
+        {
+          // like on startup, the file is not parsed but indexed from a scan of its text
+          Concurrency.RunOnExecutor(() -> WorkspaceSymbols.IndexFile(uri));
+        }
+    });
+  }
 
+  @Override
+  public CompletableFuture<List<? extends SymbolInformation>> symbol(WorkspaceSymbolParams params)
+  {
+    return Concurrency.Compute(() -> WorkspaceSymbols.getWorkspaceSymbols(params));
   }
 
   @Override
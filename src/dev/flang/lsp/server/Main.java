@@ -45,8 +45,10 @@ import org.eclipse.lsp4j.services.LanguageClient;
 import dev.flang.lsp.server.enums.Transport;
 import dev.flang.lsp.server.util.Concurrency;
 import dev.flang.lsp.server.util.ErrorHandling;
+import dev.flang.lsp.server.util.FuzionParser;
 import dev.flang.lsp.server.util.IO;
 import dev.flang.lsp.server.util.Log;
+import dev.flang.lsp.server.util.MemoryMonitor;
 import dev.flang.util.Errors;
 
 /**
@@ -81,6 +83,11 @@ public class Main
 
     Config.setLanguageClient(languageClient);
 
+    MemoryMonitor.Start(() -> {
+      FuzionParser.OnMemoryPressure();
+      SourceText.OnMemoryPressure();
+    });
+
     Config.setConfiguration(
       Concurrency.RunInBackground(() -> {
         try
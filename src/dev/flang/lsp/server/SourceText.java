@@ -31,21 +31,91 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.TreeMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.stream.Collectors;
 
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextDocumentPositionParams;
 
 import dev.flang.lsp.server.util.ErrorHandling;
+import dev.flang.lsp.server.util.Input;
 import dev.flang.lsp.server.util.LSP4jUtils;
+import dev.flang.lsp.server.util.PositionMapping;
 
 public class SourceText
 {
   /**
-   * currently open text documents and their contents
+   * currently open text documents and their contents.
+   * NOTE: texts of files that are not open are kept in diskTexts,
+   * so closing a document frees its text.
    */
-  private static final TreeMap<URI, String> textDocuments = new TreeMap<URI, String>();
+  private static final ConcurrentSkipListMap<URI, String> textDocuments = new ConcurrentSkipListMap<URI, String>();
+
+  static final int MAX_DISK_TEXTS = 256;
+
+  /**
+   * LRU-Cache of the texts of files that are not open, e.g. of the standard library.
+   * a text is read from disk once and returned as the same instance until
+   * it is evicted, since the parser cache and PositionMapping compare texts by identity.
+   * entries are dropped when the file changes on disk, see close, and on memory pressure.
+   */
+  private static final Map<URI, String> diskTexts = Collections.synchronizedMap(
+    new LinkedHashMap<URI, String>(MAX_DISK_TEXTS + 1, .75F, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<URI, String> eldest)
+      {
+        return size() > MAX_DISK_TEXTS;
+      }
+    });
+
+  /**
+   * the texts that have been set, as input of queries
+   */
+  private static final Input<URI, String> textInputs = new Input<>();
+
+  /**
+   * documents that are currently opened in the editor of the client
+   */
+  private static final Set<URI> openDocuments = ConcurrentHashMap.newKeySet();
+
+  /**
+   * set text of document that has been opened in the client
+   * @param uri
+   * @param text
+   */
+  public static void open(URI uri, String text)
+  {
+    setText(uri, text);
+    openDocuments.add(uri);
+  }
+
+  /**
+   * forget everything we hold for a document that has been closed in the client.
+   * afterwards the text of uri is read from disk again if needed.
+   * @param uri
+   */
+  public static void close(URI uri)
+  {
+    openDocuments.remove(uri);
+    textDocuments.remove(uri);
+    diskTexts.remove(uri);
+    textInputs.set(uri, null);
+    PositionMapping.Forget(uri);
+  }
+
+  /**
+   * @param uri
+   * @return true iff document is currently opened in the client
+   */
+  public static boolean isOpen(URI uri)
+  {
+    return openDocuments.contains(uri);
+  }
 
   public static void setText(URI uri, String text)
   {
@@ -53,12 +123,34 @@ public class SourceText
       {
         ErrorHandling.WriteStackTraceAndExit(1);
       }
+    var oldText = textDocuments.get(uri);
+    if (text.equals(oldText))
+      {
+        return;
+      }
+    PositionMapping.Record(uri, oldText, text);
     textDocuments.put(uri, text);
+    diskTexts.remove(uri);
+    textInputs.set(uri, text);
   }
 
   public static String getText(URI uri)
   {
-    return textDocuments.computeIfAbsent(uri, u -> ReadFromDisk(u));
+    var text = textInputs.get(uri);
+    if (text != null)
+      {
+        return text;
+      }
+    text = textDocuments.get(uri);
+    return text != null ? text: diskTexts.computeIfAbsent(uri, u -> ReadFromDisk(u));
+  }
+
+  /**
+   * called when the heap is running full, drops the texts read from disk
+   */
+  public static void OnMemoryPressure()
+  {
+    diskTexts.clear();
   }
 
   public static String allTexts()
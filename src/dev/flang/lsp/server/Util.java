@@ -30,6 +30,8 @@ import java.net.URI;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -40,13 +42,41 @@ import dev.flang.lsp.server.util.ErrorHandling;
  */
 public class Util
 {
+  /**
+   * the uris we have seen so far by the string they were created from
+   */
+  private static final Map<String, URI> string2URI = new ConcurrentHashMap<>();
+
+  /**
+   * the canonical instance of every uri
+   */
+  private static final Map<URI, URI> canonicalURIs = new ConcurrentHashMap<>();
+
+  /**
+   * @param uri
+   * @return the canonical instance of uri, equal uris are represented by the same object
+   */
+  public static URI Intern(URI uri)
+  {
+    return canonicalURIs.computeIfAbsent(uri, u -> u);
+  }
+
+  /**
+   * @param uri
+   * @return the canonical URI for uri, see Intern
+   */
   public static URI toURI(String uri)
+  {
+    return string2URI.computeIfAbsent(uri, u -> ParseURI(u));
+  }
+
+  private static URI ParseURI(String uri)
   {
     try
       {
         // https://docs.oracle.com/javase/7/docs/api/java/net/URI.html
         // RFC 2396 allows most characters except spaces
-        return new URI(URLDecoder.decode(uri, StandardCharsets.UTF_8.toString()).replace(" ", "%20"));
+        return Intern(new URI(URLDecoder.decode(uri, StandardCharsets.UTF_8.toString()).replace(" ", "%20")));
       }
     catch (Exception e)
       {
@@ -0,0 +1,94 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class CallHierarchy
+ *
+ *---------------------------------------------------------------------*/
+
+
+package dev.flang.lsp.server.feature;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.gson.JsonPrimitive;
+
+import org.eclipse.lsp4j.CallHierarchyIncomingCall;
+import org.eclipse.lsp4j.CallHierarchyIncomingCallsParams;
+import org.eclipse.lsp4j.CallHierarchyItem;
+import org.eclipse.lsp4j.CallHierarchyOutgoingCall;
+import org.eclipse.lsp4j.CallHierarchyOutgoingCallsParams;
+import org.eclipse.lsp4j.CallHierarchyPrepareParams;
+
+import dev.flang.lsp.server.util.CallGraph;
+import dev.flang.lsp.server.util.QueryAST;
+
+/**
+ * incoming and outgoing calls are answered from the CallGraph,
+ * expanding a node is a lookup by the key stored in the data of the item.
+ * https://microsoft.github.io/language-server-protocol/specification#textDocument_prepareCallHierarchy
+ */
+public class CallHierarchy
+{
+
+  public static List<CallHierarchyItem> getCallHierarchyItems(CallHierarchyPrepareParams params)
+  {
+    return QueryAST.OccurrenceAt(params)
+      .map(feature -> List.of(CallGraph.Item(feature)))
+      .orElse(List.of());
+  }
+
+  public static List<CallHierarchyIncomingCall> getIncomingCalls(CallHierarchyIncomingCallsParams params)
+  {
+    return CallGraph.Incoming(KeyOf(params.getItem()))
+      .entrySet()
+      .stream()
+      .filter(callsByCaller -> CallGraph.Item(callsByCaller.getKey()).isPresent())
+      .map(callsByCaller -> new CallHierarchyIncomingCall(
+        CallGraph.Item(callsByCaller.getKey()).get(),
+        callsByCaller.getValue().stream().map(edge -> edge.range()).collect(Collectors.toList())))
+      .collect(Collectors.toList());
+  }
+
+  public static List<CallHierarchyOutgoingCall> getOutgoingCalls(CallHierarchyOutgoingCallsParams params)
+  {
+    return CallGraph.Outgoing(KeyOf(params.getItem()))
+      .entrySet()
+      .stream()
+      .filter(callsByCallee -> CallGraph.Item(callsByCallee.getKey()).isPresent())
+      .map(callsByCallee -> new CallHierarchyOutgoingCall(
+        CallGraph.Item(callsByCallee.getKey()).get(),
+        callsByCallee.getValue().stream().map(edge -> edge.range()).collect(Collectors.toList())))
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * @param item
+   * @return the key of the feature of item in the CallGraph, the data of an item
+   * sent back by the client is deserialized as a json element.
+   */
+  private static String KeyOf(CallHierarchyItem item)
+  {
+    return item.getData() instanceof JsonPrimitive key ? key.getAsString(): String.valueOf(item.getData());
+  }
+
+}
@@ -28,27 +28,134 @@ package dev.flang.lsp.server.feature;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import com.google.gson.JsonObject;
+
 import org.eclipse.lsp4j.CodeLens;
 import org.eclipse.lsp4j.CodeLensParams;
 import org.eclipse.lsp4j.Command;
+import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
 
+import dev.flang.ast.AbstractFeature;
+import dev.flang.lsp.server.Util;
 import dev.flang.lsp.server.enums.Commands;
+import dev.flang.lsp.server.records.AstIndex;
+import dev.flang.lsp.server.records.FeatureTable;
+import dev.flang.lsp.server.util.Bridge;
+import dev.flang.lsp.server.util.CallGraph;
+import dev.flang.lsp.server.util.FeatureCache;
+import dev.flang.lsp.server.util.FeatureTool;
+import dev.flang.lsp.server.util.FuzionParser;
 import dev.flang.lsp.server.util.LSP4jUtils;
+import dev.flang.lsp.server.util.QueryAST;
 
+/**
+ * besides the run and show syntax tree lenses at the top of the file,
+ * every feature declared in the file gets a reference count lens.
+ * These are returned without command, the count is only computed when the
+ * client resolves the lens, i.e. when it becomes visible.
+ */
 public class CodeLenses
 {
+  /**
+   * the command clients provide to show a list of locations in a peek view,
+   * its arguments are the uri and position of the lens and the locations.
+   */
+  static final String SHOW_REFERENCES = "editor.action.showReferences";
+
+  /**
+   * locations of the references to a feature, cached per snapshot.
+   * NYI changes in other files do not invalidate the references
+   */
+  private static final FeatureCache<List<Location>> References = new FeatureCache<>();
+
+  /**
+   * the ids of the features of a snapshot by their call graph key, computed once per snapshot
+   */
+  private static final FeatureCache<Map<String, Integer>> Ids = new FeatureCache<>();
+
   public static List<CodeLens> getCodeLenses(CodeLensParams params)
   {
     var uri = LSP4jUtils.getUri(params.getTextDocument());
-    return Stream.of(codeLensEvaluateFile(uri), codeLensShowSyntaxTree(params))
+    return Stream.concat(
+      Stream.of(codeLensEvaluateFile(uri), codeLensShowSyntaxTree(params)),
+      codeLensesReferenceCount(uri))
       .collect(Collectors.toList());
   }
 
+  /**
+   * fill in the reference count of a lens created by codeLensesReferenceCount.
+   * The feature is looked up by its call graph key in the current snapshot so
+   * edits that move it since the lens was created do not matter.
+   */
+  public static CodeLens resolveCodeLens(CodeLens codeLens)
+  {
+    if (codeLens.getCommand() != null || !(codeLens.getData() instanceof JsonObject data))
+      {
+        return codeLens;
+      }
+    var uri = Util.toURI(data.get("uri").getAsString());
+    var key = data.get("key").getAsString();
+    var main = FuzionParser.MainOrUniverse(uri);
+    var astIndex = FeatureTool.AstIndexOf(main).orElse(AstIndex.EMPTY);
+    var id = Ids.get(main, m -> Ids(astIndex)).get(key);
+    var locations = id == null
+      ? List.<Location>of()
+      : References.get(astIndex, id, i -> References(uri, astIndex.features()[i]));
+    var count = locations.size();
+    codeLens.setCommand(new Command(count == 1 ? "1 reference" : count + " references", SHOW_REFERENCES,
+      List.of(uri.toString(), codeLens.getRange().getStart(), locations)));
+    return codeLens;
+  }
+
+  private static Map<String, Integer> Ids(AstIndex astIndex)
+  {
+    var features = astIndex.features();
+    return IntStream.range(0, features.length)
+      .boxed()
+      .collect(Collectors.toUnmodifiableMap(id -> CallGraph.Key(features[id]), id -> id, (a, b) -> a));
+  }
+
+  private static List<Location> References(URI uri, AbstractFeature feature)
+  {
+    return Stream.concat(
+      QueryAST.CallsTo(feature).map(call -> Bridge.ToLocation(call.pos())),
+      QueryAST.CallsToInOtherFiles(uri, feature))
+      .collect(Collectors.toUnmodifiableList());
+  }
+
+  /**
+   * unresolved lenses for all features declared in uri, the positions come
+   * from the feature table of the snapshot.
+   */
+  private static Stream<CodeLens> codeLensesReferenceCount(URI uri)
+  {
+    var main = FuzionParser.MainOrUniverse(uri);
+    var features = FeatureTool.AstIndexOf(main).orElse(AstIndex.EMPTY).features();
+    return FeatureTool.FeatureTableOf(main)
+      .map(table -> IntStream.range(0, table.size())
+        .filter(id -> table.kinds()[id] != FeatureTable.KIND_ARGUMENT)
+        .mapToObj(id -> features[id])
+        .filter(feature -> !FeatureTool.IsAnonymousInnerFeature(feature))
+        .map(feature -> codeLensReferenceCount(uri, feature)))
+      .orElse(Stream.empty());
+  }
+
+  private static CodeLens codeLensReferenceCount(URI uri, AbstractFeature feature)
+  {
+    var position = Bridge.ToPosition(feature.pos());
+    var data = new JsonObject();
+    data.addProperty("uri", uri.toString());
+    data.addProperty("key", CallGraph.Key(feature));
+    return new CodeLens(new Range(position, position), null, data);
+  }
+
   private static CodeLens codeLensShowSyntaxTree(CodeLensParams params)
   {
     var command = new Command(Commands.showSyntaxTree.toString(), Commands.showSyntaxTree.name(),
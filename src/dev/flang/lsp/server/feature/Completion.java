@@ -42,6 +42,7 @@ import org.eclipse.lsp4j.InsertTextMode;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 
 import dev.flang.ast.AbstractFeature;
+import dev.flang.lsp.server.util.FeatureCache;
 import dev.flang.lsp.server.util.FeatureTool;
 import dev.flang.lsp.server.util.FuzionLexer;
 import dev.flang.lsp.server.util.QueryAST;
@@ -117,11 +118,18 @@ public class Completion
     return Either.forLeft(completionItems.collect(Collectors.toList()));
   }
 
+  private static final FeatureCache<String> InsertTexts = new FeatureCache<>();
+
   /**
    * @param feature
    * @return example: psMap<${4:K -> ordered<psMap.K>}, ${5:V}>(${1:data}, ${2:size}, ${3:fill})
    */
   private static String getInsertText(AbstractFeature feature)
+  {
+    return InsertTexts.get(feature, f -> insertText(f));
+  }
+
+  private static String insertText(AbstractFeature feature)
   {
     if (!feature.isRoutine())
       {
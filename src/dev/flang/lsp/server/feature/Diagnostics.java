@@ -27,6 +27,7 @@ Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
 package dev.flang.lsp.server.feature;
 
 import java.net.URI;
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -40,6 +41,7 @@ import dev.flang.lsp.server.util.Bridge;
 import dev.flang.lsp.server.util.FuzionLexer;
 import dev.flang.lsp.server.util.FuzionParser;
 import dev.flang.lsp.server.util.Log;
+import dev.flang.lsp.server.util.Query;
 
 /**
  * provide diagnostics for a given uri
@@ -48,9 +50,16 @@ import dev.flang.lsp.server.util.Log;
 public class Diagnostics
 {
 
+  /**
+   * diagnostics depend on the source text and the parse result of a uri,
+   * they are recomputed only when one of these changes.
+   */
+  private static final Query<URI, List<Diagnostic>> Diagnostics =
+    new Query<>(uri -> getDiagnostics(uri).collect(Collectors.toList()));
+
   public static void publishDiagnostics(URI uri)
   {
-    var diagnostics = new PublishDiagnosticsParams(uri.toString(), getDiagnostics(uri).collect(Collectors.toList()));
+    var diagnostics = new PublishDiagnosticsParams(uri.toString(), Diagnostics.get(uri));
     Log.message("publishing diagnostics: " + diagnostics.getDiagnostics().size());
     Config.languageClient().publishDiagnostics(diagnostics);
   }
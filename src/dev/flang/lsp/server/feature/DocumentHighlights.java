@@ -0,0 +1,86 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class DocumentHighlights
+ *
+ *---------------------------------------------------------------------*/
+
+
+package dev.flang.lsp.server.feature;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.lsp4j.DocumentHighlight;
+import org.eclipse.lsp4j.DocumentHighlightKind;
+import org.eclipse.lsp4j.DocumentHighlightParams;
+import org.eclipse.lsp4j.Range;
+
+import dev.flang.lsp.server.records.OccurrenceIndex;
+import dev.flang.lsp.server.util.Bridge;
+import dev.flang.lsp.server.util.FeatureTool;
+import dev.flang.lsp.server.util.FuzionParser;
+import dev.flang.lsp.server.util.LSP4jUtils;
+import dev.flang.lsp.server.util.PackedPosition;
+import dev.flang.util.SourceFile;
+import dev.flang.util.SourcePosition;
+
+/**
+ * highlight all occurrences of the feature at the cursor in the same file.
+ * both finding the feature at the cursor and its occurrences are
+ * lookups in the occurrence index of the snapshot.
+ * https://microsoft.github.io/language-server-protocol/specification#textDocument_documentHighlight
+ */
+public class DocumentHighlights
+{
+
+  public static List<? extends DocumentHighlight> getDocumentHighlights(DocumentHighlightParams params)
+  {
+    var main = FuzionParser.MainOrUniverse(LSP4jUtils.getUri(params.getTextDocument()));
+    return FeatureTool.OccurrenceIndexOf(main)
+      .map(occurrenceIndex -> {
+        var cursor = PackedPosition.Pack(Bridge.ToSourcePosition(main.pos(), params.getPosition()));
+        var at = occurrenceIndex.at(cursor);
+        if (at < 0)
+          {
+            return List.<DocumentHighlight>of();
+          }
+        return Arrays
+          .stream(occurrenceIndex.occurrencesOf(occurrenceIndex.features()[at]))
+          .mapToObj(i -> DocumentHighlight(main.pos()._sourceFile, occurrenceIndex, i))
+          .collect(Collectors.toList());
+      })
+      .orElse(List.of());
+  }
+
+  private static DocumentHighlight DocumentHighlight(SourceFile sourceFile, OccurrenceIndex occurrenceIndex, int i)
+  {
+    var line = PackedPosition.Line(occurrenceIndex.positions()[i]);
+    var column = PackedPosition.Column(occurrenceIndex.positions()[i]);
+    var start = Bridge.ToPosition(new SourcePosition(sourceFile, line, column));
+    var end = Bridge.ToPosition(new SourcePosition(sourceFile, line, column + occurrenceIndex.lengths()[i]));
+    var kind = occurrenceIndex.declarations()[i] ? DocumentHighlightKind.Write: DocumentHighlightKind.Read;
+    return new DocumentHighlight(new Range(start, end), kind);
+  }
+
+}
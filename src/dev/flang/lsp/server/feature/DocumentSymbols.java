@@ -26,41 +26,279 @@ Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
 
 package dev.flang.lsp.server.feature;
 
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.eclipse.lsp4j.DocumentSymbol;
 import org.eclipse.lsp4j.DocumentSymbolParams;
+import org.eclipse.lsp4j.FoldingRangeKind;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.ProgressParams;
+import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.SymbolKind;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 
-import dev.flang.ast.AbstractFeature;
+import dev.flang.lsp.server.Config;
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.records.AstIndex;
+import dev.flang.lsp.server.records.FeatureTable;
 import dev.flang.lsp.server.util.Bridge;
+import dev.flang.lsp.server.util.FeatureTool;
 import dev.flang.lsp.server.util.FuzionParser;
 import dev.flang.lsp.server.util.LSP4jUtils;
+import dev.flang.lsp.server.util.PackedPosition;
+import dev.flang.lsp.server.util.Query;
+import dev.flang.util.SourcePosition;
 
+/**
+ * the outline of a document is computed once per version of the text and
+ * then shared by all requests, e.g. outline, breadcrumbs and sticky scroll.
+ *
+ * The extent of a symbol is taken from the indentation of the text,
+ * see FoldingRanges, instead of looking for the end of the feature in the AST.
+ * If the file could not be parsed into a main feature, the outline is
+ * derived from the source text alone, see ParseOnlyOutline.
+ */
 public class DocumentSymbols
 {
+
+  /**
+   * outlines with more symbols than this are sent to the client in batches
+   * of top level symbols via partial results, if the client asked for them.
+   */
+  static final int PARTIAL_RESULT_SIZE = 1000;
+
+  private static final Query<URI, List<DocumentSymbol>> Outlines = new Query<>(uri -> Outline(uri));
+
+  private static final Set<String> KEYWORDS = Set.of("set", "if", "else", "for", "while", "do", "until", "match",
+    "check", "in", "then", "var", "universe");
+
+  private static final Set<String> MODIFIERS = Set.of("public", "private", "module", "redef", "fixed", "type");
+
   public static List<Either<SymbolInformation, DocumentSymbol>> getDocumentSymbols(DocumentSymbolParams params)
   {
-    var mainFeature = FuzionParser.MainOrUniverse(LSP4jUtils.getUri(params.getTextDocument()));
+    var outline = Outlines.get(LSP4jUtils.getUri(params.getTextDocument()));
+    var partialResultToken = params.getPartialResultToken();
+    if (partialResultToken == null || Config.languageClient() == null || Count(outline) <= PARTIAL_RESULT_SIZE)
+      {
+        return outline
+          .stream()
+          .map(symbol -> Either.<SymbolInformation, DocumentSymbol>forRight(symbol))
+          .collect(Collectors.toList());
+      }
+    var batch = new ArrayList<DocumentSymbol>();
+    var batchSize = 0;
+    for(var symbol : outline)
+      {
+        batch.add(symbol);
+        batchSize += Count(List.of(symbol));
+        if (batchSize >= PARTIAL_RESULT_SIZE)
+          {
+            Config.languageClient().notifyProgress(new ProgressParams(partialResultToken, Either.forRight(batch)));
+            batch = new ArrayList<DocumentSymbol>();
+            batchSize = 0;
+          }
+      }
+    if (!batch.isEmpty())
+      {
+        Config.languageClient().notifyProgress(new ProgressParams(partialResultToken, Either.forRight(batch)));
+      }
+    // everything has been sent as partial results
+    return List.of();
+  }
 
-    var rootSymbol = DocumentSymbols.DocumentSymbolTree(mainFeature);
+  /**
+   * @param symbols
+   * @return number of symbols including all their descendants
+   */
+  private static int Count(List<DocumentSymbol> symbols)
+  {
+    return symbols
+      .stream()
+      .mapToInt(symbol -> 1 + Count(symbol.getChildren()))
+      .sum();
+  }
+
+  private static List<DocumentSymbol> Outline(URI uri)
+  {
+    var sourceText = SourceText.getText(uri);
+    var mainFeature = FuzionParser.MainOrUniverse(uri);
+    var table = FeatureTool.FeatureTableOf(mainFeature).orElse(FeatureTable.EMPTY);
+    var astIndex = FeatureTool.AstIndexOf(mainFeature).orElse(AstIndex.EMPTY);
+    if (mainFeature.isUniverse() || table.size() == 0)
+      {
+        return ParseOnlyOutline(sourceText);
+      }
+    var lines = sourceText.split("\n", -1);
+    var endLines = new HashMap<Integer, Integer>();
+    FoldingRanges.FoldingRangesOf(uri)
+      .stream()
+      .filter(foldingRange -> FoldingRangeKind.Region.equals(foldingRange.getKind()))
+      .forEach(foldingRange -> endLines.put(foldingRange.getStartLine(), foldingRange.getEndLine()));
+    var children = Children(table);
+    return List.of(DocumentSymbolTree(mainFeature.pos(), table, astIndex, children, 0, lines, endLines));
+  }
 
-    return List.of(Either.forRight(rootSymbol));
+  /**
+   * @param table
+   * @return for every id in table: the ids of the features declared in it that are shown in the outline
+   */
+  private static List<List<Integer>> Children(FeatureTable table)
+  {
+    var result = new ArrayList<List<Integer>>();
+    for(int id = 0; id < table.size(); id++)
+      {
+        result.add(new ArrayList<>());
+      }
+    for(int id = 0; id < table.size(); id++)
+      {
+        var outer = table.outer()[id];
+        var kind = table.kinds()[id];
+        if (outer >= 0 && kind != FeatureTable.KIND_FIELD && kind != FeatureTable.KIND_ARGUMENT)
+          {
+            result.get(outer).add(id);
+          }
+      }
+    return result;
   }
 
-  public static DocumentSymbol DocumentSymbolTree(AbstractFeature feature)
+  private static DocumentSymbol DocumentSymbolTree(SourcePosition reference, FeatureTable table, AstIndex astIndex,
+    List<List<Integer>> children, int id, String[] lines, Map<Integer, Integer> endLines)
   {
-    var documentSymbol = Bridge.ToDocumentSymbol(feature);
-    var children = FuzionParser.DeclaredFeatures(feature)
-      .filter(f -> !f.isField())
-      .map(f -> {
-        return DocumentSymbolTree(f);
-      })
+    var childSymbols = children
+      .get(id)
+      .stream()
+      .map(child -> DocumentSymbolTree(reference, table, astIndex, children, child, lines, endLines))
       .collect(Collectors.toList());
-    documentSymbol.setChildren(children);
+    var start = PackedPosition.ToPosition(Bridge.ToPackedPosition(reference, table.positions()[id]));
+    var label = FeatureTool.ToLabel(astIndex, id);
+    var name = table.name(id);
+    var selectionRange = new Range(start,
+      new Position(start.getLine(), start.getCharacter() + name.length() - name.lastIndexOf(' ') - 1));
+    var documentSymbol = new DocumentSymbol(label, SymbolKind(table.kinds()[id], !childSymbols.isEmpty()),
+      new Range(start, EndOfLine(lines, endLines.getOrDefault(start.getLine(), start.getLine()))), selectionRange);
+    documentSymbol.setChildren(childSymbols);
     return documentSymbol;
   }
 
+  private static SymbolKind SymbolKind(byte kind, boolean hasChildren)
+  {
+    switch (kind)
+      {
+        case FeatureTable.KIND_ROUTINE :
+          return hasChildren ? SymbolKind.Class: SymbolKind.Function;
+        case FeatureTable.KIND_FIELD :
+          return SymbolKind.Field;
+        case FeatureTable.KIND_ARGUMENT :
+          return SymbolKind.Variable;
+        default:
+          return SymbolKind.Interface;
+      }
+  }
+
+  private static Position EndOfLine(String[] lines, int line)
+  {
+    return new Position(line, line < lines.length ? lines[line].length(): 0);
+  }
+
+  /**
+   * outline derived from the source text alone, without running the front end:
+   * a line starting with a name followed by `is` or `=>` declares a
+   * feature, the lines indented deeper than it belong to the feature.
+   * Like the outline built from the feature table, fields declared
+   * with `:=` and arguments are not part of it.
+   */
+  public static List<DocumentSymbol> ParseOnlyOutline(String sourceText)
+  {
+    var lines = sourceText.split("\n", -1);
+    var result = new ArrayList<DocumentSymbol>();
+    // open symbols and their indentation
+    var open = new ArrayDeque<DocumentSymbol>();
+    var indentations = new ArrayDeque<Integer>();
+    var lastCodeLine = -1;
+    for(int i = 0; i < lines.length; i++)
+      {
+        var line = lines[i];
+        if (line.isBlank() || line.trim().startsWith("#"))
+          {
+            continue;
+          }
+        var indentation = FoldingRanges.Indentation(line);
+        while (!open.isEmpty() && indentations.peek() >= indentation)
+          {
+            indentations.pop();
+            open.pop().getRange().setEnd(EndOfLine(lines, lastCodeLine));
+          }
+        lastCodeLine = i;
+        var symbol = Declaration(line, i, indentation);
+        if (symbol != null)
+          {
+            (open.isEmpty() ? result: open.peek().getChildren()).add(symbol);
+            open.push(symbol);
+            indentations.push(indentation);
+          }
+      }
+    while (!open.isEmpty())
+      {
+        open.pop().getRange().setEnd(EndOfLine(lines, lastCodeLine));
+      }
+    return result;
+  }
+
+  /**
+   * @return the symbol declared in line, null if the line does not look like a declaration
+   */
+  private static DocumentSymbol Declaration(String line, int lineNumber, int indentation)
+  {
+    var words = line.trim().split("\\s+");
+    var w = 0;
+    while (w < words.length - 1 && MODIFIERS.contains(words[w]))
+      {
+        w++;
+      }
+    var isOperator = words[w].equals("infix") || words[w].equals("prefix") || words[w].equals("postfix");
+    var name = isOperator && w + 1 < words.length
+      ? words[w] + " " + words[w + 1]
+      : words[w].split("[(<:.\"]", 2)[0];
+    if (name.isEmpty() || !(isOperator || Character.isLetter(name.charAt(0)) || name.charAt(0) == '_')
+      || KEYWORDS.contains(name))
+      {
+        return null;
+      }
+    var nameStart = line.indexOf(name, indentation);
+    var rest = line.substring(nameStart + name.length());
+    if (rest.startsWith("."))
+      {
+        return null;
+      }
+    // ignore string literals and comments
+    rest = rest.split("[\"#]", 2)[0] + " ";
+    // the first of the markers decides, e.g. in `b => set k := k - 1`
+    var field = rest.indexOf(":=");
+    var function = rest.indexOf("=>");
+    var routine = rest.indexOf(" is ");
+    var first = Stream.of(field, function, routine).filter(i -> i >= 0).min(Integer::compare);
+    if (first.isEmpty() || first.get() == field)
+      {
+        return null;
+      }
+    var kind = first.get() == function
+      ? SymbolKind.Function
+      : SymbolKind.Class;
+    var selectionRange = new Range(new Position(lineNumber, nameStart),
+      new Position(lineNumber, nameStart + name.length()));
+    var symbol = new DocumentSymbol(name, kind,
+      new Range(new Position(lineNumber, indentation), new Position(lineNumber, line.length())), selectionRange);
+    symbol.setChildren(new ArrayList<>());
+    return symbol;
+  }
+
 }
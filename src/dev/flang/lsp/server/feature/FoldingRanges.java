@@ -0,0 +1,144 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class FoldingRanges
+ *
+ *---------------------------------------------------------------------*/
+
+
+package dev.flang.lsp.server.feature;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.lsp4j.FoldingRange;
+import org.eclipse.lsp4j.FoldingRangeKind;
+import org.eclipse.lsp4j.FoldingRangeRequestParams;
+
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.util.LSP4jUtils;
+import dev.flang.lsp.server.util.Query;
+
+/**
+ * folding ranges are derived from the source text alone:
+ * a line followed by lines of greater indentation starts a range,
+ * as do two or more consecutive comment lines.
+ * Since indentation determines the extent of features in Fuzion,
+ * this works on files that do not compile without running the front end.
+ */
+public class FoldingRanges
+{
+
+  private static final Query<URI, List<FoldingRange>> FoldingRanges =
+    new Query<>(uri -> ComputeFoldingRanges(SourceText.getText(uri)));
+
+  public static List<FoldingRange> getFoldingRanges(FoldingRangeRequestParams params)
+  {
+    return FoldingRangesOf(LSP4jUtils.getUri(params.getTextDocument()));
+  }
+
+  /**
+   * @param uri
+   * @return the folding ranges of the current text of uri, cached
+   */
+  static List<FoldingRange> FoldingRangesOf(URI uri)
+  {
+    return FoldingRanges.get(uri);
+  }
+
+  static List<FoldingRange> ComputeFoldingRanges(String sourceText)
+  {
+    var lines = sourceText.split("\n", -1);
+    var result = new ArrayList<FoldingRange>();
+    // start line and indentation of the lines that may start a range
+    var starts = new ArrayDeque<int[]>();
+    var lastCodeLine = -1;
+    var commentStart = -1;
+    for(int i = 0; i < lines.length; i++)
+      {
+        var line = lines[i];
+        var isComment = line.trim().startsWith("#");
+        if (!isComment && commentStart >= 0)
+          {
+            AddCommentRange(result, commentStart, i - 1);
+            commentStart = -1;
+          }
+        if (isComment && commentStart < 0)
+          {
+            commentStart = i;
+          }
+        if (!isComment && !line.isBlank())
+          {
+            var indentation = Indentation(line);
+            while (!starts.isEmpty() && starts.peek()[1] >= indentation)
+              {
+                AddRegion(result, starts.pop()[0], lastCodeLine);
+              }
+            starts.push(new int[] { i, indentation });
+            lastCodeLine = i;
+          }
+      }
+    if (commentStart >= 0)
+      {
+        AddCommentRange(result, commentStart, lines.length - 1);
+      }
+    while (!starts.isEmpty())
+      {
+        AddRegion(result, starts.pop()[0], lastCodeLine);
+      }
+    result.sort((a, b) -> Integer.compare(a.getStartLine(), b.getStartLine()));
+    return result;
+  }
+
+  private static void AddRegion(List<FoldingRange> result, int startLine, int endLine)
+  {
+    if (startLine < endLine)
+      {
+        var foldingRange = new FoldingRange(startLine, endLine);
+        foldingRange.setKind(FoldingRangeKind.Region);
+        result.add(foldingRange);
+      }
+  }
+
+  private static void AddCommentRange(List<FoldingRange> result, int startLine, int endLine)
+  {
+    if (startLine < endLine)
+      {
+        var foldingRange = new FoldingRange(startLine, endLine);
+        foldingRange.setKind(FoldingRangeKind.Comment);
+        result.add(foldingRange);
+      }
+  }
+
+  static int Indentation(String line)
+  {
+    var result = 0;
+    while (result < line.length() && line.charAt(result) == ' ')
+      {
+        result++;
+      }
+    return result;
+  }
+
+}
@@ -31,9 +31,11 @@ import org.eclipse.lsp4j.HoverParams;
 import org.eclipse.lsp4j.MarkupContent;
 import org.eclipse.lsp4j.MarkupKind;
 
+import dev.flang.ast.AbstractFeature;
 import dev.flang.lsp.server.util.FeatureTool;
 import dev.flang.lsp.server.util.FuzionLexer;
 import dev.flang.lsp.server.util.MarkdownTool;
+import dev.flang.lsp.server.util.Query;
 import dev.flang.lsp.server.util.QueryAST;
 
 /**
@@ -43,18 +45,29 @@ import dev.flang.lsp.server.util.QueryAST;
 public class Hovering
 {
 
+  /**
+   * hover infos include the comment of a feature, they are recomputed
+   * only when this comment changes.
+   */
+  private static final Query<AbstractFeature, String> HoverInfos = new Query<>(f -> HoverInfo(f));
+
   public static Hover getHover(HoverParams params)
   {
     var range = FuzionLexer.rawTokenAt(params).toRange();
     var feature = QueryAST.FeatureAt(params);
     return feature.map(f -> {
-      var hoverInfo = FeatureTool.CommentOfInMarkdown(f) + System.lineSeparator()
-        + System.lineSeparator()
-        + MarkdownTool.Bold(MarkdownTool.Escape(FeatureTool.ToLabel(f)));
-      var markupContent = new MarkupContent(MarkupKind.MARKDOWN, hoverInfo.trim());
+      var markupContent = new MarkupContent(MarkupKind.MARKDOWN, HoverInfos.get(f));
       return new Hover(markupContent, range);
     })
       .orElse(null);
   }
 
+  private static String HoverInfo(AbstractFeature f)
+  {
+    var hoverInfo = FeatureTool.CommentOfInMarkdown(f) + System.lineSeparator()
+      + System.lineSeparator()
+      + MarkdownTool.Bold(MarkdownTool.Escape(FeatureTool.ToLabel(f)));
+    return hoverInfo.trim();
+  }
+
 }
@@ -0,0 +1,235 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class InlayHints
+ *
+ *---------------------------------------------------------------------*/
+
+
+package dev.flang.lsp.server.feature;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+
+import dev.flang.ast.AbstractFeature;
+import dev.flang.ast.Call;
+import dev.flang.ast.Expr;
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.records.OccurrenceIndex;
+import dev.flang.lsp.server.util.Bridge;
+import dev.flang.lsp.server.util.ErrorHandling;
+import dev.flang.lsp.server.util.FeatureTool;
+import dev.flang.lsp.server.util.FuzionParser;
+import dev.flang.lsp.server.util.LSP4jUtils;
+import dev.flang.lsp.server.util.PackedPosition;
+import dev.flang.util.SourcePosition;
+
+/**
+ * shows the inferred types of fields declared via := and the names of
+ * the arguments of calls. Only declarations and calls within the requested
+ * range are looked at, found by binary search in the occurrence index and
+ * the call table of the snapshot.
+ *
+ * NYI lsp4j 0.12 does not know textDocument/inlayHint yet, params and result
+ * are therefore defined here, see FuzionTextDocumentService.inlayHint.
+ */
+public class InlayHints
+{
+
+  public static class InlayHintParams
+  {
+    private TextDocumentIdentifier textDocument;
+    private Range range;
+
+    public InlayHintParams(TextDocumentIdentifier textDocument, Range range)
+    {
+      this.textDocument = textDocument;
+      this.range = range;
+    }
+
+    public TextDocumentIdentifier getTextDocument()
+    {
+      return textDocument;
+    }
+
+    public Range getRange()
+    {
+      return range;
+    }
+  }
+
+  public static class InlayHint
+  {
+    public static final int KIND_TYPE = 1;
+    public static final int KIND_PARAMETER = 2;
+
+    private Position position;
+    private String label;
+    private Integer kind;
+    private Boolean paddingLeft;
+    private Boolean paddingRight;
+
+    public InlayHint(Position position, String label, int kind)
+    {
+      this.position = position;
+      this.label = label;
+      this.kind = kind;
+      this.paddingLeft = kind == KIND_TYPE;
+      this.paddingRight = kind == KIND_PARAMETER;
+    }
+
+    public Position getPosition()
+    {
+      return position;
+    }
+
+    public String getLabel()
+    {
+      return label;
+    }
+
+    public Integer getKind()
+    {
+      return kind;
+    }
+  }
+
+  public static List<InlayHint> getInlayHints(InlayHintParams params)
+  {
+    var uri = LSP4jUtils.getUri(params.getTextDocument());
+    var main = FuzionParser.MainOrUniverse(uri);
+    var from = PackedPosition.Pack(Bridge.ToSourcePosition(main.pos(), params.getRange().getStart()));
+    var to = PackedPosition.Pack(Bridge.ToSourcePosition(main.pos(), params.getRange().getEnd()));
+    var result = new ArrayList<InlayHint>();
+    FeatureTool.OccurrenceIndexOf(main).ifPresent(occurrenceIndex -> {
+      var positions = occurrenceIndex.positions();
+      for(int i = FirstAtOrAfter(positions, from); i < positions.length && positions[i] <= to; i++)
+        {
+          if (occurrenceIndex.declarations()[i])
+            {
+              TypeHint(main.pos(), occurrenceIndex, i, result);
+            }
+        }
+    });
+    FeatureTool.CallTableOf(main).ifPresent(callTable -> {
+      var calls = FeatureTool.AstIndexOf(main).get().calls();
+      var positions = callTable.positions();
+      for(int i = FirstAtOrAfter(positions, from); i < positions.length && positions[i] <= to; i++)
+        {
+          ArgumentHints(calls[i], result);
+        }
+    });
+    return result;
+  }
+
+  /**
+   * @param sorted
+   * @param key
+   * @return index of the first element of sorted that is greater or equal to key
+   */
+  private static int FirstAtOrAfter(long[] sorted, long key)
+  {
+    var low = 0;
+    var high = sorted.length;
+    while (low < high)
+      {
+        var mid = (low + high) >>> 1;
+        if (sorted[mid] < key)
+          {
+            low = mid + 1;
+          }
+        else
+          {
+            high = mid;
+          }
+      }
+    return low;
+  }
+
+  /**
+   * add the type of the field declared at occurrence i if it was inferred, i.e. declared via :=
+   */
+  private static void TypeHint(SourcePosition reference, OccurrenceIndex occurrenceIndex, int i,
+    List<InlayHint> result)
+  {
+    var feature = occurrenceIndex.features()[i];
+    if (!feature.isField())
+      {
+        return;
+      }
+    var line = PackedPosition.Line(occurrenceIndex.positions()[i]);
+    var column = PackedPosition.Column(occurrenceIndex.positions()[i]) + occurrenceIndex.lengths()[i];
+    var endOfName = new SourcePosition(reference._sourceFile, line, column);
+    var restOfLine = SourceText.RestOfLine(Bridge.ToTextDocumentPosition(endOfName));
+    var typeLabel = FeatureTool.TypeLabel(feature);
+    if (restOfLine.trim().startsWith(":=") && !typeLabel.isEmpty())
+      {
+        result.add(new InlayHint(Bridge.ToPosition(endOfName), typeLabel, InlayHint.KIND_TYPE));
+      }
+  }
+
+  /**
+   * add the names of the arguments in front of the actual arguments of call
+   */
+  private static void ArgumentHints(Call call, List<InlayHint> result)
+  {
+    var calledFeature = call.calledFeature_;
+    if (calledFeature == null || calledFeature.featureName().baseName().contains(" "))
+      {
+        return;
+      }
+    var arguments = calledFeature.arguments();
+    var actuals = call._actuals;
+    if (arguments.size() != actuals.size())
+      {
+        return;
+      }
+    for(int i = 0; i < arguments.size(); i++)
+      {
+        var name = arguments.get(i).featureName().baseName();
+        var actual = actuals.get(i);
+        if (!name.startsWith("#") && !IsCallOf(actual, name))
+          {
+            var position = ErrorHandling.ResultOrDefault(() -> Bridge.ToPosition(actual.pos()), null);
+            if (position != null)
+              {
+                result.add(new InlayHint(position, name + ":", InlayHint.KIND_PARAMETER));
+              }
+          }
+      }
+  }
+
+  /**
+   * no hint is needed if the actual argument already has the name of the argument
+   */
+  private static boolean IsCallOf(Expr actual, String name)
+  {
+    return actual instanceof Call c
+      && c.calledFeature_ instanceof AbstractFeature f
+      && f.featureName().baseName().equals(name);
+  }
+
+}
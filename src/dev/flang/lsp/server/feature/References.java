@@ -28,12 +28,12 @@ package dev.flang.lsp.server.feature;
 
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.ReferenceParams;
 
 import dev.flang.lsp.server.util.Bridge;
-import dev.flang.lsp.server.util.FeatureTool;
 import dev.flang.lsp.server.util.LSP4jUtils;
 import dev.flang.lsp.server.util.QueryAST;
 
@@ -51,8 +51,10 @@ public class References
       {
         return List.of();
       }
-    return QueryAST.CallsTo(feature.get())
-      .map(call -> Bridge.ToLocation(call.pos()))
+    var uri = LSP4jUtils.getUri(params.getTextDocument());
+    return Stream.concat(
+      QueryAST.CallsTo(feature.get()).map(call -> Bridge.ToLocation(call.pos())),
+      QueryAST.CallsToInOtherFiles(uri, feature.get()))
       .collect(Collectors.toList());
   }
 
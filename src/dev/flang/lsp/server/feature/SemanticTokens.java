@@ -0,0 +1,306 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class SemanticTokens
+ *
+ *---------------------------------------------------------------------*/
+
+
+package dev.flang.lsp.server.feature;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.lsp4j.SemanticTokenModifiers;
+import org.eclipse.lsp4j.SemanticTokenTypes;
+import org.eclipse.lsp4j.SemanticTokensDelta;
+import org.eclipse.lsp4j.SemanticTokensDeltaParams;
+import org.eclipse.lsp4j.SemanticTokensEdit;
+import org.eclipse.lsp4j.SemanticTokensLegend;
+import org.eclipse.lsp4j.SemanticTokensParams;
+import org.eclipse.lsp4j.SemanticTokensRangeParams;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.records.AstIndex;
+import dev.flang.lsp.server.records.CallTable;
+import dev.flang.lsp.server.records.FeatureTable;
+import dev.flang.lsp.server.records.TokenInfo;
+import dev.flang.lsp.server.util.Bridge;
+import dev.flang.lsp.server.util.FeatureTool;
+import dev.flang.lsp.server.util.FuzionLexer;
+import dev.flang.lsp.server.util.FuzionParser;
+import dev.flang.lsp.server.util.LSP4jUtils;
+import dev.flang.lsp.server.util.PackedPosition;
+import dev.flang.lsp.server.util.Query;
+import dev.flang.parser.Lexer.Token;
+
+/**
+ * tokens come from the lexer, identifiers are classified by the features
+ * declared and called at their position in the snapshot of the document.
+ * The last result of every document is kept so that subsequent requests
+ * can be answered with a delta.
+ */
+public class SemanticTokens
+{
+  private static final List<String> TokenTypes = List.of(
+    SemanticTokenTypes.Keyword,
+    SemanticTokenTypes.Comment,
+    SemanticTokenTypes.String,
+    SemanticTokenTypes.Number,
+    SemanticTokenTypes.Operator,
+    SemanticTokenTypes.Function,
+    SemanticTokenTypes.Property,
+    SemanticTokenTypes.Parameter);
+
+  private static final List<String> TokenModifiers = List.of(
+    SemanticTokenModifiers.Declaration);
+
+  private static final int KEYWORD = 0;
+  private static final int COMMENT = 1;
+  private static final int STRING = 2;
+  private static final int NUMBER = 3;
+  private static final int OPERATOR = 4;
+  private static final int FUNCTION = 5;
+  private static final int PROPERTY = 6;
+  private static final int PARAMETER = 7;
+
+  private static final int DECLARATION = 1 << 0;
+
+  public static SemanticTokensLegend Legend()
+  {
+    return new SemanticTokensLegend(TokenTypes, TokenModifiers);
+  }
+
+  private static final AtomicLong resultIds = new AtomicLong();
+
+  /**
+   * the last result we sent for a uri, delta requests refer to it
+   */
+  private static final Map<URI, org.eclipse.lsp4j.SemanticTokens> uri2LastResult = new ConcurrentHashMap<>();
+
+  /**
+   * token type and modifiers of the identifiers at packed positions
+   * in the current text, encoded as type | modifiers << 16.
+   */
+  private static final Query<URI, Map<Long, Integer>> Classifications = new Query<>(uri -> Classify(uri));
+
+  /**
+   * the encoded tokens of the whole document
+   */
+  private static final Query<URI, List<Integer>> Tokens =
+    new Query<>(uri -> Encode(uri, 0, Integer.MAX_VALUE));
+
+  public static org.eclipse.lsp4j.SemanticTokens getSemanticTokens(SemanticTokensParams params)
+  {
+    var uri = LSP4jUtils.getUri(params.getTextDocument());
+    var result = new org.eclipse.lsp4j.SemanticTokens(NextResultId(), Tokens.get(uri));
+    uri2LastResult.put(uri, result);
+    return result;
+  }
+
+  public static Either<org.eclipse.lsp4j.SemanticTokens, SemanticTokensDelta> getSemanticTokensDelta(
+    SemanticTokensDeltaParams params)
+  {
+    var uri = LSP4jUtils.getUri(params.getTextDocument());
+    var previous = uri2LastResult.get(uri);
+    if (previous == null || !previous.getResultId().equals(params.getPreviousResultId()))
+      {
+        return Either.forLeft(getSemanticTokens(new SemanticTokensParams(params.getTextDocument())));
+      }
+    var result = new org.eclipse.lsp4j.SemanticTokens(NextResultId(), Tokens.get(uri));
+    uri2LastResult.put(uri, result);
+    var edits = previous.getData().equals(result.getData())
+      ? List.<SemanticTokensEdit>of()
+      : List.of(Edit(previous.getData(), result.getData()));
+    return Either.forRight(new SemanticTokensDelta(edits, result.getResultId()));
+  }
+
+  /**
+   * only lexes the lines in the requested range, usually the viewport of the client.
+   */
+  public static org.eclipse.lsp4j.SemanticTokens getSemanticTokensRange(SemanticTokensRangeParams params)
+  {
+    var uri = LSP4jUtils.getUri(params.getTextDocument());
+    var range = params.getRange();
+    return new org.eclipse.lsp4j.SemanticTokens(
+      Encode(uri, range.getStart().getLine(), range.getEnd().getLine()));
+  }
+
+  /**
+   * forget the last result for uri, e.g. when it has been closed
+   * @param uri
+   */
+  public static void Forget(URI uri)
+  {
+    uri2LastResult.remove(uri);
+  }
+
+  private static String NextResultId()
+  {
+    return String.valueOf(resultIds.incrementAndGet());
+  }
+
+  /**
+   * @param previous
+   * @param current
+   * @return one edit replacing the part of previous that differs from current
+   */
+  static SemanticTokensEdit Edit(List<Integer> previous, List<Integer> current)
+  {
+    var start = 0;
+    while (start < previous.size()
+      && start < current.size()
+      && previous.get(start).equals(current.get(start)))
+      {
+        start++;
+      }
+    var previousEnd = previous.size();
+    var currentEnd = current.size();
+    while (previousEnd > start
+      && currentEnd > start
+      && previous.get(previousEnd - 1).equals(current.get(currentEnd - 1)))
+      {
+        previousEnd--;
+        currentEnd--;
+      }
+    return new SemanticTokensEdit(start, previousEnd - start, new ArrayList<>(current.subList(start, currentEnd)));
+  }
+
+  /**
+   * encode the tokens starting on lines fromLine to toLine
+   * relative to each other as required by the protocol.
+   */
+  private static List<Integer> Encode(URI uri, int fromLine, int toLine)
+  {
+    var classifications = Classifications.get(uri);
+    var result = new ArrayList<Integer>();
+    var previousLine = 0;
+    var previousCharacter = 0;
+    for(var token : FuzionLexer.RawTokens(uri, SourceText.getText(uri), fromLine, toLine))
+      {
+        var line = token.start()._line - 1;
+        var character = token.start()._column - 1;
+        var type = TokenType(token, classifications.get(PackedPosition.Pack(line, character)));
+        if (type >= 0)
+          {
+            result.add(line - previousLine);
+            result.add(line == previousLine ? character - previousCharacter: character);
+            result.add(Length(token));
+            result.add(type & 0xFFFF);
+            result.add(type >>> 16);
+            previousLine = line;
+            previousCharacter = character;
+          }
+      }
+    return result;
+  }
+
+  /**
+   * @param token
+   * @param classification the classification of the identifier at the start of token, may be null
+   * @return type | modifiers << 16, -1 if the token is not highlighted
+   */
+  private static int TokenType(TokenInfo token, Integer classification)
+  {
+    if (token.token() == Token.t_ident)
+      {
+        return classification == null ? -1: classification;
+      }
+    if (token.token() == Token.t_comment)
+      {
+        return COMMENT;
+      }
+    if (token.token() == Token.t_numliteral)
+      {
+        return NUMBER;
+      }
+    if (token.token() == Token.t_op)
+      {
+        return OPERATOR;
+      }
+    if (token.token().name().toLowerCase().startsWith("t_string"))
+      {
+        return STRING;
+      }
+    if (!token.text().isEmpty() && token.text().chars().allMatch(c -> Character.isLetter(c)))
+      {
+        return KEYWORD;
+      }
+    return -1;
+  }
+
+  /**
+   * @param token
+   * @return length of the part of token on its first line
+   */
+  private static int Length(TokenInfo token)
+  {
+    var end = token.text().indexOf('\n');
+    return end < 0 ? token.text().length(): end;
+  }
+
+  private static Map<Long, Integer> Classify(URI uri)
+  {
+    var result = new HashMap<Long, Integer>();
+    var main = FuzionParser.MainOrUniverse(uri);
+    var featureTable = FeatureTool.FeatureTableOf(main).orElse(FeatureTable.EMPTY);
+    for(int id = 0; id < featureTable.size(); id++)
+      {
+        result.put(Bridge.ToPackedPosition(main.pos(), featureTable.positions()[id]),
+          Classification(featureTable.kinds()[id]) | DECLARATION << 16);
+      }
+    var callTable = FeatureTool.CallTableOf(main).orElse(CallTable.EMPTY);
+    var astIndex = FeatureTool.AstIndexOf(main).orElse(AstIndex.EMPTY);
+    for(int i = 0; i < callTable.size(); i++)
+      {
+        var target = callTable.targets()[i];
+        // calls of features declared in other files are not in the feature table
+        var calledFeature = target >= 0 ? null: astIndex.calls()[i].calledFeature_;
+        if (target >= 0 || calledFeature != null)
+          {
+            result.putIfAbsent(Bridge.ToPackedPosition(main.pos(), callTable.positions()[i]),
+              Classification(target >= 0 ? featureTable.kinds()[target]: FeatureTool.Kind(calledFeature)));
+          }
+      }
+    return result;
+  }
+
+  private static int Classification(byte kind)
+  {
+    switch (kind)
+      {
+        case FeatureTable.KIND_FIELD :
+          return PROPERTY;
+        case FeatureTable.KIND_ARGUMENT :
+          return PARAMETER;
+        default:
+          return FUNCTION;
+      }
+  }
+
+}
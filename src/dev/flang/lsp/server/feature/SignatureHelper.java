@@ -29,7 +29,6 @@ package dev.flang.lsp.server.feature;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.eclipse.lsp4j.MarkupContent;
 import org.eclipse.lsp4j.MarkupKind;
@@ -42,7 +41,6 @@ import dev.flang.ast.AbstractFeature;
 import dev.flang.ast.Call;
 import dev.flang.lsp.server.util.CallTool;
 import dev.flang.lsp.server.util.FeatureTool;
-import dev.flang.lsp.server.util.FuzionParser;
 import dev.flang.lsp.server.util.QueryAST;
 
 public class SignatureHelper
@@ -72,18 +70,11 @@ public class SignatureHelper
 
   private static SignatureHelp getSignatureHelp(Call call, AbstractFeature featureOfCall)
   {
-    var consideredCallTargets_declaredOrInherited = FuzionParser.DeclaredOrInheritedFeatures(featureOfCall);
-    var consideredCallTargets_outerFeatures =
-      FeatureTool.outerFeatures(featureOfCall).flatMap(f -> FuzionParser.DeclaredFeatures(f));
-
-    var consideredFeatures =
-      Stream.concat(consideredCallTargets_declaredOrInherited, consideredCallTargets_outerFeatures);
-
-    var calledFeatures = consideredFeatures
-      .filter(f -> featureNameMatchesCallName(f, call));
+    var calledFeatures = FeatureTool.ResolveInScope(featureOfCall, call.name);
 
     // NYI how to "intelligently" sort the signatureinfos?
-    return new SignatureHelp(calledFeatures.map(f -> SignatureInformation(f)).collect(Collectors.toList()), 0, 0);
+    return new SignatureHelp(calledFeatures.stream().map(f -> SignatureInformation(f)).collect(Collectors.toList()),
+      0, 0);
   }
 
   private static SignatureInformation SignatureInformation(AbstractFeature feature)
@@ -93,11 +84,6 @@ public class SignatureHelper
       ParameterInfo(feature));
   }
 
-  private static boolean featureNameMatchesCallName(AbstractFeature f, Call call)
-  {
-    return f.featureName().baseName().equals(call.name);
-  }
-
   private static List<ParameterInformation> ParameterInfo(AbstractFeature calledFeature)
   {
     return calledFeature.arguments()
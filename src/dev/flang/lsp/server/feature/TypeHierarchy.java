@@ -0,0 +1,158 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class TypeHierarchy
+ *
+ *---------------------------------------------------------------------*/
+
+
+package dev.flang.lsp.server.feature;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.gson.JsonPrimitive;
+
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.TextDocumentPositionParams;
+import org.eclipse.lsp4j.TypeHierarchyItem;
+
+import dev.flang.lsp.server.records.SymbolIndexEntry;
+import dev.flang.lsp.server.util.CallGraph;
+import dev.flang.lsp.server.util.InheritanceIndex;
+import dev.flang.lsp.server.util.QueryAST;
+
+/**
+ * supertypes, subtypes and implementations are answered from the InheritanceIndex.
+ * an item carries the key of its feature as data, see CallGraph.Key.
+ *
+ * NYI lsp4j 0.12 does not know textDocument/prepareTypeHierarchy,
+ * typeHierarchy/supertypes and typeHierarchy/subtypes yet, their params are
+ * therefore defined here, see FuzionTextDocumentService.prepareTypeHierarchy.
+ * The items are lsp4j's TypeHierarchyItem, its parents and children are left empty.
+ */
+public class TypeHierarchy
+{
+
+  public static class TypeHierarchySupertypesParams
+  {
+    private TypeHierarchyItem item;
+
+    public TypeHierarchySupertypesParams(TypeHierarchyItem item)
+    {
+      this.item = item;
+    }
+
+    public TypeHierarchyItem getItem()
+    {
+      return item;
+    }
+  }
+
+  public static class TypeHierarchySubtypesParams
+  {
+    private TypeHierarchyItem item;
+
+    public TypeHierarchySubtypesParams(TypeHierarchyItem item)
+    {
+      this.item = item;
+    }
+
+    public TypeHierarchyItem getItem()
+    {
+      return item;
+    }
+  }
+
+  public static List<TypeHierarchyItem> getPrepareTypeHierarchy(TextDocumentPositionParams params)
+  {
+    return QueryAST.OccurrenceAt(params)
+      .map(feature -> {
+        var key = CallGraph.Key(feature);
+        return List.of(Item(InheritanceIndex.Entry(key).orElseGet(() -> InheritanceIndex.Entry(feature)), key));
+      })
+      .orElse(List.of());
+  }
+
+  public static List<TypeHierarchyItem> getSupertypes(TypeHierarchySupertypesParams params)
+  {
+    return Items(InheritanceIndex.Parents(KeyOf(params.getItem())));
+  }
+
+  public static List<TypeHierarchyItem> getSubtypes(TypeHierarchySubtypesParams params)
+  {
+    return Items(InheritanceIndex.Heirs(KeyOf(params.getItem())));
+  }
+
+  /**
+   * redefinitions of the feature at the cursor and the features inheriting from it
+   */
+  public static List<Location> getImplementations(TextDocumentPositionParams params)
+  {
+    return QueryAST.OccurrenceAt(params)
+      .map(feature -> {
+        var key = CallGraph.Key(feature);
+        return Stream
+          .concat(InheritanceIndex.Redefinitions(key).stream(), InheritanceIndex.Heirs(key).stream())
+          .flatMap(k -> InheritanceIndex.Entry(k).stream())
+          .map(entry -> entry.toSymbolInformation().getLocation())
+          .collect(Collectors.toList());
+      })
+      .orElse(List.of());
+  }
+
+  private static List<TypeHierarchyItem> Items(List<String> keys)
+  {
+    return keys
+      .stream()
+      .flatMap(key -> InheritanceIndex.Entry(key).map(entry -> Item(entry, key)).stream())
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * @param entry
+   * @param key
+   * @return item for entry, its qualified name is stored as detail, key as data
+   */
+  private static TypeHierarchyItem Item(SymbolIndexEntry entry, String key)
+  {
+    var item = new TypeHierarchyItem();
+    item.setName(entry.name());
+    item.setDetail(entry.containerName() == null ? entry.name(): entry.containerName() + "." + entry.name());
+    item.setKind(entry.kind());
+    item.setUri(entry.uri().toString());
+    item.setRange(entry.range());
+    item.setSelectionRange(entry.range());
+    item.setData(key);
+    return item;
+  }
+
+  /**
+   * the data of items sent back by the client is a json element
+   */
+  private static String KeyOf(TypeHierarchyItem item)
+  {
+    return item.getData() instanceof JsonPrimitive key ? key.getAsString(): String.valueOf(item.getData());
+  }
+
+}
@@ -0,0 +1,114 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class WorkspaceSymbols
+ *
+ *---------------------------------------------------------------------*/
+
+
+package dev.flang.lsp.server.feature;
+
+import java.net.URI;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.lsp4j.DocumentSymbol;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4j.WorkspaceSymbolParams;
+
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.records.SymbolIndexEntry;
+import dev.flang.lsp.server.util.ErrorHandling;
+import dev.flang.lsp.server.util.IO;
+import dev.flang.lsp.server.util.Log;
+import dev.flang.lsp.server.util.SymbolIndex;
+
+/**
+ * answers workspace symbol queries from the SymbolIndex.
+ * The index is filled whenever a document is parsed, files in the
+ * workspace that have not been parsed yet are indexed in the background
+ * from a scan of their source text, see DocumentSymbols.ParseOnlyOutline.
+ */
+public class WorkspaceSymbols
+{
+  private static final int MAX_RESULTS = 100;
+
+  public static List<? extends SymbolInformation> getWorkspaceSymbols(WorkspaceSymbolParams params)
+  {
+    return SymbolIndex
+      .Find(params.getQuery(), MAX_RESULTS)
+      .stream()
+      .map(entry -> entry.toSymbolInformation())
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * index all fuzion files in the workspace that have not been indexed yet.
+   * The files are not parsed, the entries are replaced by the declared
+   * features once a file is parsed.
+   */
+  public static void IndexWorkspace()
+  {
+    IO.WorkspaceFiles()
+      .stream()
+      .filter(uri -> !SymbolIndex.IsIndexed(uri))
+      .forEach(uri -> IndexFile(uri));
+    Log.message("indexed workspace symbols");
+  }
+
+  /**
+   * replace the entries of uri by those of a scan of its source text,
+   * e.g. after the file changed on disk.
+   * @param uri
+   */
+  public static void IndexFile(URI uri)
+  {
+    var entries = ErrorHandling.ResultOrDefault(
+      () -> Entries(uri, null, DocumentSymbols.ParseOnlyOutline(SourceText.getText(uri)))
+        .collect(Collectors.toList()),
+      List.<SymbolIndexEntry>of());
+    SymbolIndex.Index(uri, entries);
+  }
+
+  /**
+   * @param uri
+   * @param containerName qualified name of the feature symbols are declared in, null for top level symbols
+   * @param symbols
+   * @return index entries for symbols and their descendants
+   */
+  private static Stream<SymbolIndexEntry> Entries(URI uri, String containerName, List<DocumentSymbol> symbols)
+  {
+    return symbols
+      .stream()
+      .flatMap(symbol -> {
+        var name = symbol.getName();
+        var start = symbol.getSelectionRange().getStart();
+        var entry = new SymbolIndexEntry(uri, name, containerName, SymbolKind.Function, new Range(start, start));
+        var qualifiedName = containerName == null ? name: containerName + "." + name;
+        return Stream.concat(Stream.of(entry), Entries(uri, qualifiedName, symbol.getChildren()));
+      });
+  }
+
+}
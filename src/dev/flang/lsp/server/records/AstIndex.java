@@ -0,0 +1,60 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of record AstIndex
+ *
+ *---------------------------------------------------------------------*/
+
+package dev.flang.lsp.server.records;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import dev.flang.ast.AbstractFeature;
+import dev.flang.ast.Call;
+
+/**
+ * the AST objects the ids of a FeatureTable and the indices of a CallTable
+ * refer to. This is part of the compiler state of a snapshot and is dropped
+ * together with it, while the tables are kept.
+ *
+ * features:   the feature with id i is features[i]
+ * calls:      the call at index i of the call table is calls[i]
+ * callOwners: the feature the call at index i is located in
+ * featureIds: id of every feature in features
+ * cacheValues: values of the FeatureCaches for the features, by slot of the cache and id
+ */
+public record AstIndex(AbstractFeature[] features, Call[] calls, AbstractFeature[] callOwners,
+  Map<AbstractFeature, Integer> featureIds, AtomicReferenceArray<Object[]> cacheValues)
+{
+  public static final AstIndex EMPTY = new AstIndex(new AbstractFeature[0], new Call[0], new AbstractFeature[0], Map.of(),
+    new AtomicReferenceArray<>(0));
+
+  /**
+   * @param feature
+   * @return id of feature, -1 if feature is not declared in this document
+   */
+  public int idOf(AbstractFeature feature)
+  {
+    return featureIds.getOrDefault(feature, -1);
+  }
+}
@@ -0,0 +1,46 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of record CallTable
+ *
+ *---------------------------------------------------------------------*/
+
+package dev.flang.lsp.server.records;
+
+/**
+ * the calls in one source file, sorted by position.
+ * like FeatureTable, this does not refer to AST objects, the calls for the
+ * indices are in the AstIndex of the same snapshot.
+ *
+ * positions: packed start positions, see PackedPosition
+ * targets:   id of the called feature in the FeatureTable, -1 if it is declared elsewhere
+ * owners:    id of the feature the call is located in, -1 if it is not part of the FeatureTable
+ */
+public record CallTable(long[] positions, int[] targets, int[] owners)
+{
+  public static final CallTable EMPTY = new CallTable(new long[0], new int[0], new int[0]);
+
+  public int size()
+  {
+    return positions.length;
+  }
+}
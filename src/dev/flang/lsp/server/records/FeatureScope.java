@@ -0,0 +1,48 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class FeatureScope
+ *
+ *---------------------------------------------------------------------*/
+
+package dev.flang.lsp.server.records;
+
+import java.util.List;
+import java.util.Map;
+
+import dev.flang.ast.AbstractFeature;
+
+/**
+ * one segment of a scope chain: the features declared in or inherited by a
+ * feature, indexed by their base name.
+ */
+public record FeatureScope(AbstractFeature[] members, Map<String, List<AbstractFeature>> byName)
+{
+  /**
+   * @param name
+   * @return the members of this scope with the given name
+   */
+  public List<AbstractFeature> membersNamed(String name)
+  {
+    return byName.getOrDefault(name, List.of());
+  }
+}
@@ -0,0 +1,71 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of record FeatureTable
+ *
+ *---------------------------------------------------------------------*/
+
+package dev.flang.lsp.server.records;
+
+/**
+ * the features declared in one source file, flattened into columns.
+ * a feature is identified by its index into these arrays, its id.
+ * the table does not refer to any AST objects, the features for the ids
+ * are in the AstIndex of the same snapshot.
+ *
+ * outer:       id of the outer feature, -1 if it is not part of this table
+ * positions:   packed start positions, see PackedPosition
+ * names:       index of the base name in nameTable
+ * kinds:       one of the KIND_ constants
+ * last:        true iff no feature starts on a later line at the same or a smaller indentation
+ */
+public record FeatureTable(int[] outer, long[] positions, int[] names, byte[] kinds, String[] nameTable,
+  boolean[] last)
+{
+  public static final byte KIND_OTHER = 0;
+  public static final byte KIND_ROUTINE = 1;
+  public static final byte KIND_FIELD = 2;
+  public static final byte KIND_ARGUMENT = 3;
+
+  public static final FeatureTable EMPTY =
+    new FeatureTable(new int[0], new long[0], new int[0], new byte[0], new String[0], new boolean[0]);
+
+  public int size()
+  {
+    return positions.length;
+  }
+
+  public String name(int id)
+  {
+    return nameTable[names[id]];
+  }
+
+  /**
+   * @param id
+   * @return true iff no feature starts on a later line at the same or a smaller indentation
+   */
+  public boolean isLast(int id)
+  {
+    return last[id];
+  }
+
+}
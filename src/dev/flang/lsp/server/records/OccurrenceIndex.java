@@ -0,0 +1,77 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class OccurrenceIndex
+ *
+ *---------------------------------------------------------------------*/
+
+
+package dev.flang.lsp.server.records;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import dev.flang.ast.AbstractFeature;
+import dev.flang.lsp.server.util.PackedPosition;
+
+/**
+ * the occurrences of features in one source file, declarations and calls, sorted by position.
+ * an occurrence is identified by its index into these arrays.
+ *
+ * positions:    packed start positions, see PackedPosition
+ * lengths:      length of the name of the feature at the occurrence
+ * features:     the feature that occurs
+ * declarations: true iff the occurrence is the declaration of the feature
+ * byFeature:    indices of the occurrences of every feature
+ */
+public record OccurrenceIndex(long[] positions, int[] lengths, AbstractFeature[] features, boolean[] declarations,
+  Map<AbstractFeature, int[]> byFeature)
+{
+  /**
+   * @param position packed position
+   * @return index of the occurrence whose name contains or ends at position, -1 if there is none
+   */
+  public int at(long position)
+  {
+    var i = Arrays.binarySearch(positions, position);
+    if (i < 0)
+      {
+        i = -i - 2;
+      }
+    if (i >= 0
+      && PackedPosition.Line(positions[i]) == PackedPosition.Line(position)
+      && PackedPosition.Column(position) <= PackedPosition.Column(positions[i]) + lengths[i])
+      {
+        return i;
+      }
+    return -1;
+  }
+
+  /**
+   * @param feature
+   * @return indices of the occurrences of feature
+   */
+  public int[] occurrencesOf(AbstractFeature feature)
+  {
+    return byFeature.getOrDefault(feature, new int[0]);
+  }
+}
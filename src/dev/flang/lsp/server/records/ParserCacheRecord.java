@@ -26,19 +26,49 @@ Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
 
 package dev.flang.lsp.server.records;
 
+import java.net.URI;
 import java.util.TreeSet;
 
+import dev.flang.ast.Resolution;
 import dev.flang.ast.Types.Resolved;
-import dev.flang.fe.FrontEnd;
-import dev.flang.fe.FrontEndOptions;
+import dev.flang.lsp.server.util.DemotableReference;
 import dev.flang.mir.MIR;
 import dev.flang.util.Errors;
 
 /**
- * holds all artifacts of parsing that we later need
+ * holds all artifacts of parsing that we later need.
+ * NOTE: the front end and its options are not kept, they are only needed
+ * while creating the MIR and would keep the whole compiler state alive.
+ *
+ * The compiler objects are held via frontEndResult, which may be demoted to
+ * a soft reference when the record is not in use, see FuzionParser.Demote.
+ * mir(), resolution(), resolved() and astIndex() must only be used while the
+ * record is not demoted. The tables and the errors do not refer to the AST
+ * and are always available.
+ * estimatedSize is an estimate of the memory retained by the compiler objects,
+ * derived from the size of the source text and the number of features and calls.
  */
-public record ParserCacheRecord(MIR mir, FrontEndOptions frontEndOptions, FrontEnd frontEnd,
-  TreeSet<Errors.Error> errors, TreeSet<Errors.Error> warnings, Resolved resolved)
+public record ParserCacheRecord(DemotableReference<FrontEndResult> frontEndResult,
+  TreeSet<Errors.Error> errors, TreeSet<Errors.Error> warnings, String sourceText,
+  URI uri, long estimatedSize, FeatureTable featureTable, CallTable callTable)
 {
+  public MIR mir()
+  {
+    return frontEndResult.get().mir();
+  }
+
+  public Resolution resolution()
+  {
+    return frontEndResult.get().resolution();
+  }
+
+  public Resolved resolved()
+  {
+    return frontEndResult.get().resolved();
+  }
 
+  public AstIndex astIndex()
+  {
+    return frontEndResult.get().astIndex();
+  }
 }
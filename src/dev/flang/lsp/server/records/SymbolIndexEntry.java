@@ -0,0 +1,47 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class SymbolIndexEntry
+ *
+ *---------------------------------------------------------------------*/
+
+
+package dev.flang.lsp.server.records;
+
+import java.net.URI;
+
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.SymbolKind;
+
+/**
+ * a feature in the workspace symbol index. Holds no reference to the AST
+ * so that it survives the eviction of the parse result it was created from.
+ */
+public record SymbolIndexEntry(URI uri, String name, String containerName, SymbolKind kind, Range range)
+{
+  public SymbolInformation toSymbolInformation()
+  {
+    return new SymbolInformation(name, kind, new Location(uri.toString(), range), containerName);
+  }
+}
@@ -0,0 +1,119 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class TextDelta
+ *
+ *---------------------------------------------------------------------*/
+
+package dev.flang.lsp.server.records;
+
+import org.eclipse.lsp4j.Position;
+
+import dev.flang.lsp.server.util.LSP4jUtils;
+
+/**
+ * describes the change between two versions of a text as one replaced region.
+ * the region starts at start and ends at oldEnd in the old text
+ * and at newEnd in the new text.
+ */
+public record TextDelta(Position start, Position oldEnd, Position newEnd)
+{
+  /**
+   * @param oldText
+   * @param newText
+   * @return the region that differs between oldText and newText
+   */
+  public static TextDelta Of(String oldText, String newText)
+  {
+    var max = Math.min(oldText.length(), newText.length());
+    var prefix = 0;
+    while (prefix < max && oldText.charAt(prefix) == newText.charAt(prefix))
+      {
+        prefix++;
+      }
+    var suffix = 0;
+    while (suffix < max - prefix
+      && oldText.charAt(oldText.length() - 1 - suffix) == newText.charAt(newText.length() - 1 - suffix))
+      {
+        suffix++;
+      }
+    return new TextDelta(
+      PositionOf(oldText, prefix),
+      PositionOf(oldText, oldText.length() - suffix),
+      PositionOf(newText, newText.length() - suffix));
+  }
+
+  private static Position PositionOf(String text, int offset)
+  {
+    var line = 0;
+    var lineStart = 0;
+    for(int i = 0; i < offset; i++)
+      {
+        if (text.charAt(i) == '\n')
+          {
+            line++;
+            lineStart = i + 1;
+          }
+      }
+    return new Position(line, offset - lineStart);
+  }
+
+  /**
+   * @param position position in old text
+   * @return position in new text
+   */
+  public Position MapForward(Position position)
+  {
+    return Map(position, oldEnd, newEnd);
+  }
+
+  /**
+   * @param position position in new text
+   * @return position in old text
+   */
+  public Position MapBackward(Position position)
+  {
+    return Map(position, newEnd, oldEnd);
+  }
+
+  /**
+   * positions before the changed region stay where they are,
+   * positions after it are shifted, positions inside of it are moved to its start.
+   */
+  private Position Map(Position position, Position fromEnd, Position toEnd)
+  {
+    if (LSP4jUtils.ComparePosition(position, start) < 0)
+      {
+        return position;
+      }
+    if (LSP4jUtils.ComparePosition(position, fromEnd) >= 0)
+      {
+        var line = position.getLine() - fromEnd.getLine() + toEnd.getLine();
+        if (position.getLine() == fromEnd.getLine())
+          {
+            return new Position(line, position.getCharacter() - fromEnd.getCharacter() + toEnd.getCharacter());
+          }
+        return new Position(line, position.getCharacter());
+      }
+    return new Position(start.getLine(), start.getCharacter());
+  }
+}
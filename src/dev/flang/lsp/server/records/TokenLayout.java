@@ -0,0 +1,55 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of record TokenLayout
+ *
+ *---------------------------------------------------------------------*/
+
+package dev.flang.lsp.server.records;
+
+import java.util.Arrays;
+
+/**
+ * the tokens of a source text without comments and whitespace.
+ * signature contains the text of every token together with the layout
+ * that matters to the parser: if the token starts a new line, the
+ * indentation of that line, and if it is separated from the previous token.
+ * starts holds the zero based packed start of every token in ascending
+ * order, see PackedPosition.
+ */
+public record TokenLayout(String signature, long[] starts)
+{
+  /**
+   * @param from packed position
+   * @param to packed position
+   * @return true iff a token starts at or after from and before to
+   */
+  public boolean HasTokenStartingIn(long from, long to)
+  {
+    var i = Arrays.binarySearch(starts, from);
+    if (i < 0)
+      {
+        i = -i - 1;
+      }
+    return i < starts.length && starts[i] < to;
+  }
+}
@@ -93,60 +93,71 @@ public class ASTItem
    * @return
    */
   public static Optional<SourcePosition> sourcePosition(Object entry)
+  {
+    return Optional.ofNullable(sourcePositionOrNull(entry));
+  }
+
+  /**
+   * like sourcePosition, but without wrapping the result,
+   * used by queries that look at the positions of many items.
+   * @param entry
+   * @return position of entry or null
+   */
+  static SourcePosition sourcePositionOrNull(Object entry)
   {
     if (entry instanceof AbstractFeature e)
       {
-        return Optional.of(e.pos());
+        return e.pos();
       }
     if (entry instanceof AbstractType t)
       {
-        return Optional.ofNullable(t.pos());
+        return t.pos();
       }
     if (entry instanceof Stmnt)
       {
-        return Optional.ofNullable(((Stmnt) entry).pos());
+        return ((Stmnt) entry).pos();
       }
     if (entry instanceof Impl)
       {
-        return Optional.ofNullable(((Impl) entry).pos);
+        return ((Impl) entry).pos;
       }
     if (entry instanceof Generic)
       {
-        return Optional.ofNullable(((Generic) entry)._pos);
+        return ((Generic) entry)._pos;
       }
     if (entry instanceof Case)
       {
-        return Optional.ofNullable(((Case) entry).pos);
+        return ((Case) entry).pos;
       }
     if (entry instanceof InlineArray)
       {
-        return Optional.ofNullable(((InlineArray) entry).pos());
+        return ((InlineArray) entry).pos();
       }
     if (entry instanceof Expr)
       {
-        return Optional.ofNullable(((Expr) entry).pos());
+        return ((Expr) entry).pos();
       }
     if (entry instanceof ReturnType)
       {
-        return Optional.empty();
+        return null;
       }
     if (entry instanceof Cond)
       {
-        return Optional.empty();
+        return null;
       }
     if (entry instanceof FormalGenerics)
       {
-        return Optional.empty();
+        return null;
       }
     if (entry instanceof Contract)
       {
-        return Optional.empty();
+        return null;
       }
 
     var errorMessage = "sourcePosition(), missing implementation for: " + entry.getClass();
     IO.SYS_ERR.println(errorMessage);
     ErrorHandling.WriteStackTrace(new Exception(errorMessage));
-    return Optional.empty();
+    return null;
   }
 
   private static final SourcePosition None =
@@ -159,7 +170,8 @@ public class ASTItem
 
   public static SourcePosition sourcePositionOrNone(Object obj)
   {
-    return ASTItem.sourcePosition(obj).orElse(None);
+    var result = sourcePositionOrNull(obj);
+    return result == null ? None: result;
   }
 
   public static boolean IsAbstractFeature(Object o)
@@ -169,34 +181,32 @@ public class ASTItem
 
   static Predicate<? super Entry<Object, AbstractFeature>> IsItemInFile(URI uri)
   {
+    var canonicalUri = Util.Intern(uri);
     return (entry) -> {
-      var sourcePositionOption = sourcePosition(entry.getKey());
-      if (sourcePositionOption.isEmpty())
+      var sourcePosition = sourcePositionOrNull(entry.getKey());
+      if (sourcePosition == null)
         {
           return false;
         }
-      return uri.equals(FuzionParser.getUri(sourcePositionOption.get()));
+      // uris are interned
+      return canonicalUri == FuzionParser.getUri(sourcePosition);
     };
   }
 
   static Comparator<? super Object> CompareByLineThenByColumn()
   {
     return (a, b) -> {
-      var position1 = sourcePosition(a);
-      var position2 = sourcePosition(b);
-      if (position1.isEmpty())
+      var position1 = sourcePositionOrNull(a);
+      var position2 = sourcePositionOrNull(b);
+      if (position1 == null)
         {
           return -1;
         }
-      if (position2.isEmpty())
+      if (position2 == null)
         {
           return +1;
         }
-      if (position1.get()._line == position2.get()._line)
-        {
-          return position1.get()._column - position2.get()._column;
-        }
-      return position1.get()._line - position2.get()._line;
+      return Long.compare(PackedPosition.Pack(position1), PackedPosition.Pack(position2));
     };
   }
 }
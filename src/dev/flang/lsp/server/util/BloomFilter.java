@@ -0,0 +1,109 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class BloomFilter
+ *
+ *---------------------------------------------------------------------*/
+
+
+package dev.flang.lsp.server.util;
+
+import java.util.Arrays;
+
+/**
+ * a set of strings that may report false positives but no false negatives.
+ * uses double hashing to derive HASHES bit positions from two hash codes.
+ */
+public class BloomFilter
+{
+  private static final int HASHES = 4;
+
+  private static final int BITS_PER_ELEMENT = 10;
+
+  private final long[] bits;
+
+  /**
+   * @param expectedElements number of elements that will be added,
+   * gives a false positive rate of about one percent.
+   */
+  public BloomFilter(int expectedElements)
+  {
+    bits = new long[Math.max(1, (expectedElements * BITS_PER_ELEMENT + 63) / 64)];
+  }
+
+  public void add(String str)
+  {
+    var h1 = str.hashCode();
+    var h2 = SecondHash(str);
+    for(int i = 0; i < HASHES; i++)
+      {
+        var bit = Bit(h1 + i * h2);
+        bits[bit >>> 6] |= 1L << bit;
+      }
+  }
+
+  public boolean mightContain(String str)
+  {
+    var h1 = str.hashCode();
+    var h2 = SecondHash(str);
+    for(int i = 0; i < HASHES; i++)
+      {
+        var bit = Bit(h1 + i * h2);
+        if ((bits[bit >>> 6] & (1L << bit)) == 0)
+          {
+            return false;
+          }
+      }
+    return true;
+  }
+
+  private int Bit(int hash)
+  {
+    return Math.floorMod(hash, bits.length * 64);
+  }
+
+  /**
+   * FNV-1a
+   */
+  private static int SecondHash(String str)
+  {
+    var result = 0x811c9dc5;
+    for(int i = 0; i < str.length(); i++)
+      {
+        result = (result ^ str.charAt(i)) * 0x01000193;
+      }
+    return result | 1;
+  }
+
+  @Override
+  public boolean equals(Object obj)
+  {
+    return obj instanceof BloomFilter other && Arrays.equals(bits, other.bits);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Arrays.hashCode(bits);
+  }
+
+}
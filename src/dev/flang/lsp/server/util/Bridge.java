@@ -28,12 +28,12 @@ package dev.flang.lsp.server.util;
 
 import java.net.URI;
 import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.eclipse.lsp4j.DocumentSymbol;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
-import org.eclipse.lsp4j.SymbolKind;
 import org.eclipse.lsp4j.TextDocumentPositionParams;
 
 import dev.flang.ast.AbstractFeature;
@@ -46,9 +46,49 @@ import dev.flang.util.SourcePosition;
 public class Bridge
 {
 
+  /**
+   * NOTE: if sourcePosition refers to an older version of the source text,
+   * the returned position is mapped to the current version.
+   * @param sourcePosition
+   * @return
+   */
   public static Position ToPosition(SourcePosition sourcePosition)
   {
-    return new Position(sourcePosition._line - 1, sourcePosition._column - 1);
+    return PositionMapping.ToCurrent(sourcePosition,
+      new Position(sourcePosition._line - 1, sourcePosition._column - 1));
+  }
+
+  /**
+   * like ToPosition, but without allocating a Position
+   * @param sourcePosition
+   * @return zero based packed position in the current text, see PackedPosition
+   */
+  public static long ToPackedPosition(SourcePosition sourcePosition)
+  {
+    return PositionMapping.ToCurrentPacked(sourcePosition);
+  }
+
+  /**
+   * like ToPackedPosition, for positions taken from the tables of a snapshot
+   * @param reference a source position in the source file position refers to
+   * @param position one based packed position in the text reference was parsed from
+   * @return zero based packed position in the current text, see PackedPosition
+   */
+  public static long ToPackedPosition(SourcePosition reference, long position)
+  {
+    return PositionMapping.ToCurrentPacked(reference, position);
+  }
+
+  /**
+   * inverse of ToPosition
+   * @param reference a source position in the source file the result should refer to
+   * @param position position in the current version of the source text
+   * @return
+   */
+  public static SourcePosition ToSourcePosition(SourcePosition reference, Position position)
+  {
+    var result = PositionMapping.FromCurrent(reference, position);
+    return new SourcePosition(reference._sourceFile, result.getLine() + 1, result.getCharacter() + 1);
   }
 
   public static Location ToLocation(SourcePosition sourcePosition)
@@ -62,12 +102,17 @@ public class Bridge
     return new Range(ToPosition(feature.pos()), ToPosition(FuzionParser.endOfFeature(feature)));
   }
 
-  public static DocumentSymbol ToDocumentSymbol(AbstractFeature feature)
+  /**
+   * the one SourceFile we use for every uri
+   */
+  private static final Map<URI, SourceFile> uri2SourceFile = new ConcurrentHashMap<>();
+
+  public static SourceFile ToSourceFile(URI uri)
   {
-    return new DocumentSymbol(FeatureTool.ToLabel(feature), SymbolKind.Key, ToRange(feature), ToRange(feature));
+    return uri2SourceFile.computeIfAbsent(uri, u -> NewSourceFile(u));
   }
 
-  public static SourceFile ToSourceFile(URI uri)
+  private static SourceFile NewSourceFile(URI uri)
   {
     var filePath = Path.of(uri);
     if (filePath.equals(SourceFile.STDIN))
@@ -0,0 +1,260 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class CallGraph
+ *
+ *---------------------------------------------------------------------*/
+
+
+package dev.flang.lsp.server.util;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.eclipse.lsp4j.CallHierarchyItem;
+import org.eclipse.lsp4j.Range;
+
+import dev.flang.ast.AbstractFeature;
+import dev.flang.lsp.server.records.AstIndex;
+import dev.flang.lsp.server.records.CallEdge;
+import dev.flang.util.SourcePosition;
+
+/**
+ * the calls between features in all files that have been parsed.
+ * features are identified by keys made of the uri they are declared in,
+ * their qualified names and their number of arguments, see Key. So edges
+ * from different snapshots and files can be merged and survive the
+ * eviction of the parse results they were created from.
+ * The edges and items of a file are replaced whenever it is parsed again.
+ */
+public class CallGraph
+{
+
+  private static final Object lock = new Object();
+
+  private static final Map<URI, List<CallEdge>> uri2Edges = new HashMap<>();
+
+  private static final Map<String, List<CallEdge>> incoming = new HashMap<>();
+
+  private static final Map<String, List<CallEdge>> outgoing = new HashMap<>();
+
+  /**
+   * call hierarchy items of the callers and callees, by key
+   */
+  private static final Map<String, CallHierarchyItem> items = new HashMap<>();
+
+  /**
+   * the number of files whose edges refer to an item, by key
+   */
+  private static final Map<String, Integer> itemReferences = new HashMap<>();
+
+  private static final Map<URI, List<String>> uri2ItemKeys = new HashMap<>();
+
+  /**
+   * replace the edges of uri by the calls in astIndex
+   * @param uri
+   * @param astIndex the features and calls of the snapshot of uri
+   */
+  public static void Index(URI uri, AstIndex astIndex)
+  {
+    var newItems = new HashMap<String, CallHierarchyItem>();
+    var edges = new ArrayList<CallEdge>();
+    for(int i = 0; i < astIndex.calls().length; i++)
+      {
+        var call = astIndex.calls()[i];
+        var callee = call.calledFeature_;
+        if (callee != null)
+          {
+            var caller = NamedOuter(astIndex.callOwners()[i]);
+            var callerKey = Key(caller);
+            var calleeKey = Key(callee);
+            newItems.computeIfAbsent(callerKey, k -> Item(caller));
+            newItems.computeIfAbsent(calleeKey, k -> Item(callee));
+            edges.add(new CallEdge(uri, callerKey, calleeKey, NameRange(call.pos(), callee)));
+          }
+      }
+    synchronized (lock)
+      {
+        Remove(uri);
+        uri2Edges.put(uri, edges);
+        for(var edge : edges)
+          {
+            incoming.computeIfAbsent(edge.callee(), k -> new ArrayList<>()).add(edge);
+            outgoing.computeIfAbsent(edge.caller(), k -> new ArrayList<>()).add(edge);
+          }
+        newItems.forEach((key, item) -> {
+          items.put(key, item);
+          itemReferences.merge(key, 1, Integer::sum);
+        });
+        uri2ItemKeys.put(uri, new ArrayList<>(newItems.keySet()));
+      }
+  }
+
+  /**
+   * @param uri
+   * @return true iff the calls of uri have been indexed
+   */
+  public static boolean IsIndexed(URI uri)
+  {
+    synchronized (lock)
+      {
+        return uri2Edges.containsKey(uri);
+      }
+  }
+
+  /**
+   * remove the edges of uri and the items no other file refers to
+   * @param uri
+   */
+  public static void Remove(URI uri)
+  {
+    synchronized (lock)
+      {
+        var itemKeys = uri2ItemKeys.remove(uri);
+        if (itemKeys != null)
+          {
+            for(var key : itemKeys)
+              {
+                if (itemReferences.merge(key, -1, Integer::sum) <= 0)
+                  {
+                    itemReferences.remove(key);
+                    items.remove(key);
+                  }
+              }
+          }
+        var edges = uri2Edges.remove(uri);
+        if (edges != null)
+          {
+            // every list is filtered once, a file may contain many calls of the same feature
+            for(var callee : edges.stream().map(edge -> edge.callee()).collect(Collectors.toSet()))
+              {
+                RemoveEdgesOf(incoming, callee, uri);
+              }
+            for(var caller : edges.stream().map(edge -> edge.caller()).collect(Collectors.toSet()))
+              {
+                RemoveEdgesOf(outgoing, caller, uri);
+              }
+          }
+      }
+  }
+
+  private static void RemoveEdgesOf(Map<String, List<CallEdge>> map, String key, URI uri)
+  {
+    map.computeIfPresent(key, (k, v) -> {
+      v.removeIf(e -> e.uri().equals(uri));
+      return v.isEmpty() ? null: v;
+    });
+  }
+
+  /**
+   * @param key
+   * @return the calls to the feature with key grouped by the key of the feature containing them
+   */
+  public static Map<String, List<CallEdge>> Incoming(String key)
+  {
+    synchronized (lock)
+      {
+        return incoming.getOrDefault(key, List.of())
+          .stream()
+          .collect(Collectors.groupingBy(edge -> edge.caller()));
+      }
+  }
+
+  /**
+   * @param key
+   * @return the calls in the feature with key grouped by the key of the feature they call
+   */
+  public static Map<String, List<CallEdge>> Outgoing(String key)
+  {
+    synchronized (lock)
+      {
+        return outgoing.getOrDefault(key, List.of())
+          .stream()
+          .collect(Collectors.groupingBy(edge -> edge.callee()));
+      }
+  }
+
+  /**
+   * @param key
+   * @return the call hierarchy item of the feature with key if it has been indexed
+   */
+  public static Optional<CallHierarchyItem> Item(String key)
+  {
+    synchronized (lock)
+      {
+        return Optional.ofNullable(items.get(key));
+      }
+  }
+
+  /**
+   * @param feature
+   * @return the key of feature in the call graph, distinguishes features with the same
+   * qualified name in different files and overloads with different numbers of arguments
+   */
+  public static String Key(AbstractFeature feature)
+  {
+    return FuzionParser.getUri(feature.pos()) + "#" + feature.qualifiedName() + "/" + feature.arguments().size();
+  }
+
+  /**
+   * @param feature
+   * @return call hierarchy item of feature, the qualified name of feature is stored as detail,
+   * its key as data
+   */
+  public static CallHierarchyItem Item(AbstractFeature feature)
+  {
+    var range = NameRange(feature.pos(), feature);
+    var item = new CallHierarchyItem(feature.featureName().baseName(), SymbolIndex.SymbolKind(FeatureTool.Kind(feature)),
+      FuzionParser.getUri(feature.pos()).toString(), range, range);
+    item.setDetail(feature.qualifiedName());
+    item.setData(Key(feature));
+    return item;
+  }
+
+  /**
+   * calls in lambdas are attributed to the feature containing the lambda
+   */
+  private static AbstractFeature NamedOuter(AbstractFeature feature)
+  {
+    var result = feature;
+    while (result.outer() != null && FeatureTool.IsAnonymousInnerFeature(result))
+      {
+        result = result.outer();
+      }
+    return result;
+  }
+
+  private static Range NameRange(SourcePosition pos, AbstractFeature feature)
+  {
+    var name = feature.featureName().baseName();
+    var start = Bridge.ToPosition(pos);
+    var end = Bridge.ToPosition(new SourcePosition(pos._sourceFile, pos._line,
+      pos._column + name.length() - name.lastIndexOf(' ') - 1));
+    return new Range(start, end);
+  }
+
+}
@@ -55,8 +55,7 @@ public class CallTool
     var result = call._actuals
       .stream()
       .map(expression -> expression.pos())
-      .sorted(Comparator.reverseOrder())
-      .findFirst();
+      .max(Comparator.naturalOrder());
     if (result.isEmpty())
       {
         return call.pos();
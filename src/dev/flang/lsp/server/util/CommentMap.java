@@ -0,0 +1,131 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class CommentMap
+ *
+ *---------------------------------------------------------------------*/
+
+package dev.flang.lsp.server.util;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import dev.flang.lsp.server.SourceText;
+
+/**
+ * holds the comment blocks of one version of a source text.
+ * the comment lines are extracted in one pass over the text,
+ * for every line we remember where the block of comment lines
+ * directly above this line starts.
+ */
+public class CommentMap
+{
+
+  static final int MAX_ENTRIES = 20;
+  // LRU-Cache holding the comment maps of the most recently used source texts
+  private static Map<String, CommentMap> sourceText2CommentMap = Collections.synchronizedMap(
+    new LinkedHashMap<String, CommentMap>(MAX_ENTRIES + 1, .75F, true) {
+      public boolean removeEldestEntry(Map.Entry<String, CommentMap> eldest)
+      {
+        return size() > MAX_ENTRIES;
+      }
+    });
+
+  private final String[] lines;
+
+  /**
+   * index of the first line of the comment block that ends directly above line i.
+   * equals i if line i is not preceded by a comment line.
+   */
+  private final int[] blockStart;
+
+  private final String[] comments;
+
+  private final String[] markdown;
+
+  private CommentMap(String sourceText)
+  {
+    lines = sourceText.split("\n", -1);
+    blockStart = new int[lines.length + 1];
+    comments = new String[lines.length + 1];
+    markdown = new String[lines.length + 1];
+    for(int i = 0; i < lines.length; i++)
+      {
+        blockStart[i + 1] = IsCommentLine(lines[i]) ? blockStart[i]: i + 1;
+      }
+  }
+
+  /**
+   * @param uri
+   * @return comment map of the current source text of uri
+   */
+  public static CommentMap Of(URI uri)
+  {
+    return sourceText2CommentMap.computeIfAbsent(SourceText.getText(uri), st -> new CommentMap(st));
+  }
+
+  private static boolean IsCommentLine(String line)
+  {
+    return line.trim().startsWith("#");
+  }
+
+  /**
+   * @param line zero based line number
+   * @return text of the comment block directly above line, without the leading #
+   */
+  public synchronized String CommentAbove(int line)
+  {
+    if (line < 0 || line >= comments.length)
+      {
+        return "";
+      }
+    if (comments[line] == null)
+      {
+        comments[line] = IntStream.range(blockStart[line], line)
+          .mapToObj(i -> lines[i].trim().replaceAll("^#", "").trim())
+          .collect(Collectors.joining(System.lineSeparator()));
+      }
+    return comments[line];
+  }
+
+  /**
+   * @param line zero based line number
+   * @return the comment block directly above line rendered as markdown
+   */
+  public synchronized String MarkdownAbove(int line)
+  {
+    if (line < 0 || line >= markdown.length)
+      {
+        return "";
+      }
+    if (markdown[line] == null)
+      {
+        markdown[line] = MarkdownTool.Italic(MarkdownTool.Escape(CommentAbove(line)));
+      }
+    return markdown[line];
+  }
+
+}
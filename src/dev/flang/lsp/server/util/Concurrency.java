@@ -64,6 +64,17 @@ public class Concurrency
     return cachedThreadPoolExecutor.submit(callable);
   }
 
+  /**
+   * run runnable on the single thread executor after the requests submitted
+   * so far. Use this instead of RunInBackground for work on the front end,
+   * it must not run in parallel to the requests.
+   * @param runnable
+   */
+  public static void RunOnExecutor(Runnable runnable)
+  {
+    executor.submit(runnable);
+  }
+
   /**
    * run callable on single thread executor.
    * periodically check if callable meanwhile has been cancelled
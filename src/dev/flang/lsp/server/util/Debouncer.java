@@ -15,6 +15,8 @@ public class Debouncer
   /**
    * Debounces {@code callable} by {@code delay}, i.e., schedules it to be executed after {@code delay},
    * or cancels its execution if the method is called with the same key within the {@code delay} again.
+   * NOTE: a runnable that has already started is not interrupted, the front end does not
+   * survive being interrupted in the middle of parsing.
    */
   public void debounce(final Object key, final Runnable runnable, long delay, TimeUnit unit)
   {
@@ -33,7 +35,19 @@ public class Debouncer
     }, delay, unit));
     if (prev != null)
       {
-        prev.cancel(true);
+        prev.cancel(false);
+      }
+  }
+
+  /**
+   * cancel the execution of the runnable debounced with {@code key}, if any.
+   */
+  public void cancel(final Object key)
+  {
+    final Future<?> prev = delayedMap.remove(key);
+    if (prev != null)
+      {
+        prev.cancel(false);
       }
   }
 
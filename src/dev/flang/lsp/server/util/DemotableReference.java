@@ -0,0 +1,83 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class DemotableReference
+ *
+ *---------------------------------------------------------------------*/
+
+package dev.flang.lsp.server.util;
+
+import java.lang.ref.SoftReference;
+
+/**
+ * a reference that is strong while the referent is in use and can be
+ * demoted to a soft reference, so the garbage collector may reclaim the
+ * referent when memory runs short.
+ */
+public class DemotableReference<T>
+{
+  private volatile T strong;
+  private final SoftReference<T> soft;
+
+  public DemotableReference(T referent)
+  {
+    this.strong = referent;
+    this.soft = new SoftReference<>(referent);
+  }
+
+  /**
+   * @return the referent, null if it has been demoted and reclaimed since
+   */
+  public T get()
+  {
+    var result = strong;
+    return result != null ? result: soft.get();
+  }
+
+  public boolean isDemoted()
+  {
+    return strong == null;
+  }
+
+  /**
+   * hold the referent only softly from now on
+   */
+  public void demote()
+  {
+    strong = null;
+  }
+
+  /**
+   * hold the referent strongly again
+   * @return the referent, null if it has been reclaimed
+   */
+  public T promote()
+  {
+    var result = soft.get();
+    if (result != null)
+      {
+        strong = result;
+      }
+    return result;
+  }
+
+}
@@ -0,0 +1,176 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class FeatureCache
+ *
+ *---------------------------------------------------------------------*/
+
+package dev.flang.lsp.server.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import dev.flang.ast.AbstractFeature;
+import dev.flang.lsp.server.records.AstIndex;
+
+/**
+ * caches values that are computed for a feature, e.g. labels or snippets.
+ * They stay valid as long as the parser cache record of the feature's
+ * universe is alive and are dropped when it is evicted.
+ *
+ * Features of a document have ids assigned once when its snapshot is
+ * created, see AstIndex. Callers holding such an id should use
+ * get(astIndex, id, compute), which stores the value in an array of the
+ * snapshot. Other features are looked up by identity.
+ */
+public class FeatureCache<T>
+{
+  /**
+   * the maximum number of caches, each cache has a slot in the arrays of every snapshot.
+   */
+  static final int MAX_CACHES = 64;
+
+  /**
+   * all caches that have been created, needed for eviction.
+   */
+  private static final List<FeatureCache<?>> caches = Collections.synchronizedList(new ArrayList<>());
+
+  private static final AtomicInteger slots = new AtomicInteger();
+
+  /**
+   * index of this cache in AstIndex.cacheValues
+   */
+  private final int slot;
+
+  private final Map<AbstractFeature, T> values = new IdentityHashMap<>();
+
+  /**
+   * the features that have values in this cache, by universe, needed for eviction.
+   */
+  private final Map<AbstractFeature, List<AbstractFeature>> universe2Features = new IdentityHashMap<>();
+
+  public FeatureCache()
+  {
+    slot = slots.getAndIncrement();
+    if (slot >= MAX_CACHES)
+      {
+        throw new IllegalStateException("more than " + MAX_CACHES + " feature caches");
+      }
+    caches.add(this);
+  }
+
+  /**
+   * NOTE: compute is not run while holding the lock, so it may itself use
+   * this or other caches.
+   * @param feature
+   * @param compute
+   * @return cached value for feature or the result of compute
+   */
+  public T get(AbstractFeature feature, Function<AbstractFeature, T> compute)
+  {
+    synchronized (this)
+      {
+        var result = values.get(feature);
+        if (result != null)
+          {
+            return result;
+          }
+      }
+    var result = compute.apply(feature);
+    var universe = FeatureTool.universe(feature);
+    if (universe.isEmpty())
+      {
+        return result;
+      }
+    synchronized (this)
+      {
+        // the parser cache record may have been released while computing
+        if (!FuzionParser.IsAlive(universe.get()))
+          {
+            return result;
+          }
+        var existing = values.putIfAbsent(feature, result);
+        if (existing != null)
+          {
+            return existing;
+          }
+        universe2Features.computeIfAbsent(universe.get(), u -> new ArrayList<>()).add(feature);
+        return result;
+      }
+  }
+
+  /**
+   * NOTE: the values are stored without a lock, if two threads compute the
+   * value of the same id at the same time, both compute it and one wins.
+   * @param astIndex the snapshot id belongs to
+   * @param id the id of a feature in astIndex
+   * @param compute
+   * @return cached value for the feature with the given id or the result of compute
+   */
+  @SuppressWarnings("unchecked")
+  public T get(AstIndex astIndex, int id, IntFunction<T> compute)
+  {
+    var cacheValues = astIndex.cacheValues();
+    var values = cacheValues.get(slot);
+    if (values == null)
+      {
+        cacheValues.compareAndSet(slot, null, new Object[astIndex.features().length]);
+        values = cacheValues.get(slot);
+      }
+    var result = (T) values[id];
+    if (result == null)
+      {
+        result = compute.apply(id);
+        values[id] = result;
+      }
+    return result;
+  }
+
+  private synchronized void evict(AbstractFeature universe)
+  {
+    var features = universe2Features.remove(universe);
+    if (features != null)
+      {
+        features.forEach(values::remove);
+      }
+  }
+
+  /**
+   * drop all cached values of features belonging to universe.
+   * the values stored in the snapshot are dropped together with the snapshot.
+   * @param universe
+   */
+  static void Evict(AbstractFeature universe)
+  {
+    synchronized (caches)
+      {
+        caches.forEach(c -> c.evict(universe));
+      }
+  }
+
+}
@@ -28,30 +28,39 @@ Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
 package dev.flang.lsp.server.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-import org.eclipse.lsp4j.Position;
-
 import dev.flang.ast.AbstractFeature;
 import dev.flang.ast.AbstractType;
+import dev.flang.ast.Call;
 import dev.flang.ast.Types;
 import dev.flang.lsp.server.ASTWalker;
-import dev.flang.lsp.server.SourceText;
 import dev.flang.lsp.server.Util;
+import dev.flang.lsp.server.records.AstIndex;
+import dev.flang.lsp.server.records.CallTable;
+import dev.flang.lsp.server.records.FeatureScope;
+import dev.flang.lsp.server.records.FeatureTable;
+import dev.flang.lsp.server.records.OccurrenceIndex;
+import dev.flang.lsp.server.records.ParserCacheRecord;
 import dev.flang.util.ANY;
 
 public class FeatureTool extends ANY
 {
   public static Stream<AbstractFeature> outerFeatures(AbstractFeature feature)
   {
-    if (feature.outer() == null)
-      {
-        return Stream.empty();
-      }
-    return Stream.concat(Stream.of(feature.outer()), outerFeatures(feature.outer()));
+    return Stream.iterate(feature.outer(), f -> f != null, f -> f.outer());
   }
 
   public static Stream<AbstractFeature> DeclaredFeaturesRecursive(AbstractFeature feature)
@@ -60,29 +69,27 @@ public class FeatureTool extends ANY
       FuzionParser.DeclaredFeatures(feature).flatMap(f -> DeclaredFeaturesRecursive(f)));
   }
 
+  /**
+   * the comments of features depend on the current source text,
+   * they are recomputed only when this changes.
+   * NOTE: they are not stored in the snapshot by id since a snapshot is
+   * reused for edits that only change comments, see FuzionParser.ReusableParserCacheRecord.
+   */
+  private static final Query<AbstractFeature, String> Comments = new Query<>(feature -> {
+    var textDocumentPosition = Bridge.ToTextDocumentPosition(feature.pos());
+    return CommentMap.Of(LSP4jUtils.getUri(textDocumentPosition))
+      .CommentAbove(textDocumentPosition.getPosition().getLine());
+  });
+
+  private static final Query<AbstractFeature, String> CommentsInMarkdown = new Query<>(feature -> {
+    var textDocumentPosition = Bridge.ToTextDocumentPosition(feature.pos());
+    return CommentMap.Of(LSP4jUtils.getUri(textDocumentPosition))
+      .MarkdownAbove(textDocumentPosition.getPosition().getLine());
+  });
+
   public static String CommentOf(AbstractFeature feature)
   {
-    var textDocumentPosition = Bridge.ToTextDocumentPosition(feature.pos());
-    var line = textDocumentPosition.getPosition().getLine() - 1;
-    var commentLines = new ArrayList<String>();
-    while (true)
-      {
-        textDocumentPosition.setPosition(new Position(line, 0));
-        if (line < 0 || !FuzionLexer.isCommentLine(textDocumentPosition))
-          {
-            break;
-          }
-        commentLines.add(SourceText.LineAt(textDocumentPosition));
-        line = line - 1;
-      }
-    Collections.reverse(commentLines);
-    return commentLines
-      .stream()
-      .map(l -> l.trim())
-      .map(l -> l
-        .replaceAll("^#", "")
-        .trim())
-      .collect(Collectors.joining(System.lineSeparator()));
+    return Comments.get(feature);
   }
 
   public static String AST(AbstractFeature start)
@@ -148,11 +155,28 @@ public class FeatureTool extends ANY
     return Main(f.outer());
   }
 
+  private static final FeatureCache<String> Labels = new FeatureCache<>();
+
   /**
    * @param feature
    * @return example: array<T>(length i32, init Function<array.T, i32>) => array<array.T>
    */
   public static String ToLabel(AbstractFeature feature)
+  {
+    return CachedById(Labels, feature, f -> Label(f));
+  }
+
+  /**
+   * @param astIndex
+   * @param id
+   * @return the label of the feature with the given id in astIndex
+   */
+  public static String ToLabel(AstIndex astIndex, int id)
+  {
+    return Labels.get(astIndex, id, i -> Label(astIndex.features()[i]));
+  }
+
+  private static String Label(AbstractFeature feature)
   {
     if (feature.resultType().isChoice())
       {
@@ -179,6 +203,17 @@ public class FeatureTool extends ANY
     return feature.featureName().baseName();
   }
 
+  private static final FeatureCache<String> TypeLabels = new FeatureCache<>();
+
+  /**
+   * @param feature
+   * @return example: complex<f64>, empty if the type is not known
+   */
+  public static String TypeLabel(AbstractFeature feature)
+  {
+    return CachedById(TypeLabels, feature, f -> ErrorHandling.ResultOrDefault(() -> Label(f.resultType()), ""));
+  }
+
   private static String Label(AbstractType type)
   {
     // NYI don't rely on astType
@@ -189,7 +224,42 @@ public class FeatureTool extends ANY
   {
     if (PRECONDITIONS)
       require(!f.pos().isBuiltIn());
-    return MarkdownTool.Italic(MarkdownTool.Escape(CommentOf(f)));
+    return CommentsInMarkdown.get(f);
+  }
+
+  private static final FeatureCache<FeatureScope> FeatureScopes = new FeatureCache<>();
+
+  private static final FeatureCache<FeatureScope[]> ScopeChains = new FeatureCache<>();
+
+  /**
+   * @param feature
+   * @return the features declared in or inherited by feature, indexed by name
+   */
+  private static FeatureScope FeatureScope(AbstractFeature feature)
+  {
+    return CachedById(FeatureScopes, feature, f -> {
+      var members = FuzionParser.DeclaredOrInheritedFeatures(f).toArray(AbstractFeature[]::new);
+      var byName = Arrays.stream(members)
+        .collect(Collectors.groupingBy(m -> m.featureName().baseName(), HashMap::new, Collectors.toList()));
+      return new FeatureScope(members, byName);
+    });
+  }
+
+  /**
+   * the scope chain is shared: every feature's scope is computed only once
+   * and referenced by the chains of all its inner features.
+   *
+   * @param feature
+   * @return the scopes of feature and of its outer features, innermost first.
+   * Each scope contains the declared and the inherited features.
+   */
+  private static FeatureScope[] ScopeChain(AbstractFeature feature)
+  {
+    return CachedById(ScopeChains, feature, f -> {
+      return Stream.concat(Stream.of(f), outerFeatures(f))
+        .map(x -> FeatureScope(x))
+        .toArray(FeatureScope[]::new);
+    });
   }
 
   /**
@@ -198,13 +268,35 @@ public class FeatureTool extends ANY
    */
   static Stream<AbstractFeature> FeaturesInScope(AbstractFeature feature)
   {
-    return Stream
-      .of(Stream.of(feature), outerFeatures(feature), feature.inherits().stream().map(c -> c.calledFeature()))
-      .reduce(Stream::concat)
-      .orElseGet(Stream::empty)
-      .flatMap(f -> {
-        return FuzionParser.DeclaredFeatures(f);
-      });
+    return Arrays.stream(ScopeChain(feature))
+      .flatMap(scope -> Arrays.stream(scope.members()));
+  }
+
+  /**
+   * resolve name as seen from within feature.
+   * features of inner scopes, declared or inherited, shadow features of the
+   * same name and the same number of arguments in outer scopes, features
+   * are told apart by name and arity.
+   *
+   * @param feature
+   * @param name
+   * @return the features name refers to, those of inner scopes first, empty if name is not visible
+   */
+  public static List<AbstractFeature> ResolveInScope(AbstractFeature feature, String name)
+  {
+    var result = new ArrayList<AbstractFeature>();
+    var shadowedArities = new HashSet<Integer>();
+    for(var scope : ScopeChain(feature))
+      {
+        var visible = scope
+          .membersNamed(name)
+          .stream()
+          .filter(f -> !shadowedArities.contains(f.arguments().size()))
+          .collect(Collectors.toList());
+        visible.forEach(f -> shadowedArities.add(f.arguments().size()));
+        result.addAll(visible);
+      }
+    return result;
   }
 
   /**
@@ -214,10 +306,16 @@ public class FeatureTool extends ANY
    */
   static boolean IsOfLastFeature(AbstractFeature feature)
   {
-
-    return !IsInternal(feature) && DeclaredFeaturesRecursive(Main(feature).get())
-      .noneMatch(f -> f.pos()._line > feature.pos()._line
-        && f.pos()._column <= feature.pos()._column);
+    if (IsInternal(feature))
+      {
+        return false;
+      }
+    return DocumentRecordOf(feature)
+      .filter(record -> record.astIndex().idOf(feature) >= 0)
+      .map(record -> record.featureTable().isLast(record.astIndex().idOf(feature)))
+      .orElseGet(() -> DeclaredFeaturesRecursive(Main(feature).get())
+        .noneMatch(f -> f.pos()._line > feature.pos()._line
+          && f.pos()._column <= feature.pos()._column));
   }
 
   static boolean IsInternal(AbstractFeature f)
@@ -226,5 +324,247 @@ public class FeatureTool extends ANY
     return Util.HashSetOf("Object", "Function", "call").contains(f.featureName().baseName());
   }
 
+  /**
+   * @param feature
+   * @return the parser cache record whose document declares feature
+   */
+  private static Optional<ParserCacheRecord> DocumentRecordOf(AbstractFeature feature)
+  {
+    if (feature.isUniverse())
+      {
+        return Optional.empty();
+      }
+    return Main(feature)
+      .flatMap(main -> FuzionParser.ParserCacheRecordOf(main.outer())
+        .filter(record -> record.mir().main() == main));
+  }
+
+  /**
+   * @param feature
+   * @return table of all features declared in the same top level feature as feature
+   */
+  public static Optional<FeatureTable> FeatureTableOf(AbstractFeature feature)
+  {
+    return DocumentRecordOf(feature).map(record -> record.featureTable());
+  }
+
+  /**
+   * @param feature
+   * @return table of all calls in the same top level feature as feature
+   */
+  public static Optional<CallTable> CallTableOf(AbstractFeature feature)
+  {
+    return DocumentRecordOf(feature).map(record -> record.callTable());
+  }
+
+  /**
+   * @param feature
+   * @return the AST objects the ids in the tables of feature's document refer to
+   */
+  public static Optional<AstIndex> AstIndexOf(AbstractFeature feature)
+  {
+    return DocumentRecordOf(feature).map(record -> record.astIndex());
+  }
+
+  /**
+   * features declared in a document have their values stored in the snapshot
+   * by id, all others, e.g. of the standard library, are looked up by identity.
+   * @param <T>
+   * @param cache
+   * @param feature
+   * @param compute
+   * @return cached value of feature or the result of compute
+   */
+  private static <T> T CachedById(FeatureCache<T> cache, AbstractFeature feature,
+    Function<AbstractFeature, T> compute)
+  {
+    return AstIndexOf(feature)
+      .filter(astIndex -> astIndex.idOf(feature) >= 0)
+      .map(astIndex -> cache.get(astIndex, astIndex.idOf(feature), id -> compute.apply(feature)))
+      .orElseGet(() -> cache.get(feature, compute));
+  }
+
+  private static final FeatureCache<OccurrenceIndex> OccurrenceIndices = new FeatureCache<>();
+
+  /**
+   * @param feature
+   * @return the occurrences of features in the same top level feature as feature
+   */
+  public static Optional<OccurrenceIndex> OccurrenceIndexOf(AbstractFeature feature)
+  {
+    return DocumentRecordOf(feature)
+      .map(record -> OccurrenceIndices.get(record.mir().main(), m -> OccurrenceIndex(record)));
+  }
+
+  private static OccurrenceIndex OccurrenceIndex(ParserCacheRecord record)
+  {
+    var featureTable = record.featureTable();
+    var callTable = record.callTable();
+    var astIndex = record.astIndex();
+    var occurrences = new HashMap<Long, AbstractFeature>();
+    var declarations = new HashSet<Long>();
+    for(int id = 0; id < featureTable.size(); id++)
+      {
+        var feature = astIndex.features()[id];
+        if (!IsAnonymousInnerFeature(feature))
+          {
+            occurrences.put(featureTable.positions()[id], feature);
+            declarations.add(featureTable.positions()[id]);
+          }
+      }
+    for(int i = 0; i < callTable.size(); i++)
+      {
+        var calledFeature = astIndex.calls()[i].calledFeature_;
+        if (calledFeature != null && !IsAnonymousInnerFeature(calledFeature))
+          {
+            occurrences.putIfAbsent(callTable.positions()[i], calledFeature);
+          }
+      }
+    var positions = occurrences.keySet().stream().mapToLong(p -> p).sorted().toArray();
+    var lengths = new int[positions.length];
+    var features = new AbstractFeature[positions.length];
+    var isDeclaration = new boolean[positions.length];
+    var byFeature = new IdentityHashMap<AbstractFeature, List<Integer>>();
+    for(int i = 0; i < positions.length; i++)
+      {
+        features[i] = occurrences.get(positions[i]);
+        var name = features[i].featureName().baseName();
+        lengths[i] = name.length() - name.lastIndexOf(' ') - 1;
+        isDeclaration[i] = declarations.contains(positions[i]);
+        byFeature.computeIfAbsent(features[i], f -> new ArrayList<>()).add(i);
+      }
+    var occurrencesByFeature = new IdentityHashMap<AbstractFeature, int[]>();
+    byFeature.forEach((f, indices) -> occurrencesByFeature.put(f, indices.stream().mapToInt(i -> i).toArray()));
+    return new OccurrenceIndex(positions, lengths, features, isDeclaration,
+      Collections.unmodifiableMap(occurrencesByFeature));
+  }
+
+  /**
+   * collect the features declared in main and the calls in its source file,
+   * done once when a snapshot is created.
+   * @param main
+   * @return the features and calls of main's source file
+   */
+  static AstIndex AstIndex(AbstractFeature main)
+  {
+    var features = DeclaredFeaturesRecursive(main).toArray(AbstractFeature[]::new);
+    var ids = new IdentityHashMap<AbstractFeature, Integer>();
+    for(int i = 0; i < features.length; i++)
+      {
+        ids.put(features[i], i);
+      }
+    var uri = FuzionParser.getUri(main.pos());
+    var entries = ASTWalker.Traverse(main)
+      .filter(entry -> entry.getKey() instanceof Call)
+      .filter(ASTItem.IsItemInFile(uri))
+      .sorted(Comparator.comparingLong(entry -> PackedPosition.Pack(((Call) entry.getKey()).pos())))
+      .toList();
+    var calls = new Call[entries.size()];
+    var callOwners = new AbstractFeature[entries.size()];
+    for(int i = 0; i < calls.length; i++)
+      {
+        calls[i] = (Call) entries.get(i).getKey();
+        callOwners[i] = entries.get(i).getValue();
+      }
+    return new AstIndex(features, calls, callOwners, Collections.unmodifiableMap(ids),
+      new AtomicReferenceArray<>(FeatureCache.MAX_CACHES));
+  }
+
+  /**
+   * @param astIndex
+   * @return the table of the features in astIndex
+   */
+  static FeatureTable FeatureTable(AstIndex astIndex)
+  {
+    var features = astIndex.features();
+    var outer = new int[features.length];
+    var positions = new long[features.length];
+    var names = new int[features.length];
+    var kinds = new byte[features.length];
+    var nameIds = new HashMap<String, Integer>();
+    for(int i = 0; i < features.length; i++)
+      {
+        var f = features[i];
+        outer[i] = astIndex.idOf(f.outer());
+        positions[i] = PackedPosition.Pack(f.pos());
+        names[i] = nameIds.computeIfAbsent(f.featureName().baseName().intern(), name -> nameIds.size());
+        kinds[i] = Kind(f);
+      }
+    var nameTable = new String[nameIds.size()];
+    nameIds.forEach((name, id) -> nameTable[id] = name);
+    return new FeatureTable(outer, positions, names, kinds, nameTable, Last(positions));
+  }
+
+  /**
+   * @param positions
+   * @return for every position: true iff no position on a later line has the same or a smaller column
+   */
+  private static boolean[] Last(long[] positions)
+  {
+    var byLineDescending = IntStream.range(0, positions.length)
+      .boxed()
+      .sorted(Comparator.comparingInt(i -> -PackedPosition.Line(positions[i])))
+      .mapToInt(i -> i)
+      .toArray();
+    var result = new boolean[positions.length];
+    var minColumnOfLaterLines = Integer.MAX_VALUE;
+    var i = 0;
+    while (i < byLineDescending.length)
+      {
+        var line = PackedPosition.Line(positions[byLineDescending[i]]);
+        var j = i;
+        while (j < byLineDescending.length && PackedPosition.Line(positions[byLineDescending[j]]) == line)
+          {
+            result[byLineDescending[j]] = PackedPosition.Column(positions[byLineDescending[j]]) < minColumnOfLaterLines;
+            j++;
+          }
+        for(; i < j; i++)
+          {
+            minColumnOfLaterLines = Math.min(minColumnOfLaterLines, PackedPosition.Column(positions[byLineDescending[i]]));
+          }
+      }
+    return result;
+  }
+
+  /**
+   * @param f
+   * @return one of the FeatureTable.KIND_ constants
+   */
+  public static byte Kind(AbstractFeature f)
+  {
+    if (IsArgument(f))
+      {
+        return FeatureTable.KIND_ARGUMENT;
+      }
+    if (f.isField())
+      {
+        return FeatureTable.KIND_FIELD;
+      }
+    if (ErrorHandling.ResultOrDefault(() -> f.isRoutine(), false))
+      {
+        return FeatureTable.KIND_ROUTINE;
+      }
+    return FeatureTable.KIND_OTHER;
+  }
+
+  /**
+   * @param astIndex
+   * @return the table of the calls in astIndex
+   */
+  static CallTable CallTable(AstIndex astIndex)
+  {
+    var calls = astIndex.calls();
+    var positions = new long[calls.length];
+    var targets = new int[calls.length];
+    var owners = new int[calls.length];
+    for(int i = 0; i < calls.length; i++)
+      {
+        var call = calls[i];
+        positions[i] = PackedPosition.Pack(call.pos());
+        targets[i] = call.calledFeature_ == null ? -1: astIndex.idOf(call.calledFeature());
+        owners[i] = astIndex.idOf(astIndex.callOwners()[i]);
+      }
+    return new CallTable(positions, targets, owners);
+  }
 
 }
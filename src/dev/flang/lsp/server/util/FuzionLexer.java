@@ -27,14 +27,21 @@ Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
 package dev.flang.lsp.server.util;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.TextDocumentPositionParams;
 
 import dev.flang.lsp.server.SourceText;
 import dev.flang.lsp.server.Util;
+import dev.flang.lsp.server.records.TextDelta;
 import dev.flang.lsp.server.records.TokenInfo;
+import dev.flang.lsp.server.records.TokenLayout;
 import dev.flang.parser.Lexer;
 import dev.flang.parser.Lexer.Token;
 import dev.flang.util.SourceFile;
@@ -43,6 +50,16 @@ import dev.flang.util.SourcePosition;
 public class FuzionLexer
 {
 
+  static final int MAX_ENTRIES = 20;
+  // LRU-Cache holding the token layouts of the most recently used source texts
+  private static Map<String, TokenLayout> sourceText2TokenLayout = Collections.synchronizedMap(
+    new LinkedHashMap<String, TokenLayout>(MAX_ENTRIES + 1, .75F, true) {
+      public boolean removeEldestEntry(Map.Entry<String, TokenLayout> eldest)
+      {
+        return size() > MAX_ENTRIES;
+      }
+    });
+
   public static Boolean IsValidIdentifier(String str)
   {
     var isIdentifier = IO.WithTextInputStream(str, () -> {
@@ -91,9 +108,11 @@ public class FuzionLexer
     });
   }
 
+  private static final URI STDIN = Util.Intern(SourceFile.STDIN.toUri());
+
   private static TokenInfo tokenInfo(Lexer lexer)
   {
-    return FuzionLexer.tokenInfo(SourceFile.STDIN.toUri(), lexer);
+    return FuzionLexer.tokenInfo(STDIN, lexer);
   }
 
   private static TokenInfo tokenInfo(URI uri, Lexer lexer)
@@ -146,6 +165,36 @@ public class FuzionLexer
     });
   }
 
+  /**
+   * @param uri
+   * @param sourceText
+   * @param fromLine zero based
+   * @param toLine zero based, inclusive
+   * @return the tokens, including comments but not whitespace, starting on lines fromLine to toLine
+   */
+  public static List<TokenInfo> RawTokens(URI uri, String sourceText, int fromLine, int toLine)
+  {
+    if (fromLine >= sourceText.lines().count())
+      {
+        return List.of();
+      }
+    return IO.WithTextInputStream(sourceText, () -> {
+      var result = new ArrayList<TokenInfo>();
+      var lexer = NewLexerStdIn();
+      lexer.setPos(lexer.lineStartPos(fromLine + 1));
+      while (lexer.current() != Token.t_eof
+        && lexer.sourcePos(lexer.pos())._line <= toLine + 1)
+        {
+          if (lexer.current() != Token.t_ws)
+            {
+              result.add(tokenInfo(uri, lexer));
+            }
+          lexer.nextRaw();
+        }
+      return result;
+    });
+  }
+
   public static Position endOfToken(URI uri, Position start)
   {
     var textDocumentPosition = LSP4jUtils.TextDocumentPositionParams(uri, start);
@@ -153,4 +202,76 @@ public class FuzionLexer
     return Bridge.ToPosition(token.end());
   }
 
+  /**
+   * @param sourceText
+   * @return the tokens of sourceText without comments and whitespace
+   */
+  public static TokenLayout TokenLayout(String sourceText)
+  {
+    var result = sourceText2TokenLayout.get(sourceText);
+    if (result == null)
+      {
+        result = ComputeTokenLayout(sourceText);
+        sourceText2TokenLayout.put(sourceText, result);
+      }
+    return result;
+  }
+
+  private static TokenLayout ComputeTokenLayout(String sourceText)
+  {
+    return IO.WithTextInputStream(sourceText, () -> {
+      var signature = new StringBuilder();
+      var starts = new ArrayList<Long>();
+      var previousLine = -1;
+      var previousEnd = -1;
+      var lexer = NewLexerStdIn();
+      while (lexer.current() != Token.t_eof)
+        {
+          var start = lexer.sourcePos(lexer.pos());
+          var text = lexer.asString(lexer.pos(), lexer.bytePos());
+          if (start._line != previousLine)
+            {
+              signature.append('\n').append(start._column).append(' ');
+            }
+          else if (start._column != previousEnd)
+            {
+              signature.append(' ');
+            }
+          signature.append(text).append('\u001f');
+          starts.add(PackedPosition.Pack(start._line - 1, start._column - 1));
+          previousLine = start._line;
+          previousEnd = start._column + text.length();
+          lexer.next();
+        }
+      return new TokenLayout(
+        signature.toString(),
+        starts.stream().mapToLong(p -> p).toArray());
+    });
+  }
+
+  /**
+   * does the change from oldText to newText only touch comments and whitespace
+   * in a way that can not change the result of parsing?
+   * This is the case if the tokens and their layout are the same and
+   * no token starts inside of the changed region, i.e. all tokens keep
+   * their position relative to the start or the end of the text.
+   *
+   * @param oldText
+   * @param newText
+   * @return
+   */
+  public static boolean IsTriviaOnlyChange(String oldText, String newText)
+  {
+    var oldTokens = TokenLayout(oldText);
+    var newTokens = TokenLayout(newText);
+    if (!oldTokens.signature().equals(newTokens.signature()))
+      {
+        return false;
+      }
+    var delta = TextDelta.Of(oldText, newText);
+    var start = PackedPosition.Pack(delta.start());
+    return !oldTokens.HasTokenStartingIn(start, PackedPosition.Pack(delta.oldEnd()))
+      && !newTokens.HasTokenStartingIn(start, PackedPosition.Pack(delta.newEnd()));
+  }
+
 }
@@ -29,17 +29,23 @@ package dev.flang.lsp.server.util;
 import java.io.File;
 import java.net.URI;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.lsp4j.MessageParams;
 import org.eclipse.lsp4j.MessageType;
+import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.TextDocumentPositionParams;
 
@@ -48,6 +54,7 @@ import dev.flang.ast.AbstractFeature;
 import dev.flang.ast.FeatureName;
 import dev.flang.ast.Resolution;
 import dev.flang.ast.Types;
+import dev.flang.ast.Types.Resolved;
 import dev.flang.be.interpreter.ChoiceIdAsRef;
 import dev.flang.be.interpreter.Instance;
 import dev.flang.be.interpreter.Interpreter;
@@ -58,12 +65,17 @@ import dev.flang.lsp.server.ASTWalker;
 import dev.flang.lsp.server.Config;
 import dev.flang.lsp.server.SourceText;
 import dev.flang.lsp.server.Util;
+import dev.flang.lsp.server.records.AstIndex;
+import dev.flang.lsp.server.records.CallTable;
+import dev.flang.lsp.server.records.FeatureTable;
+import dev.flang.lsp.server.records.FrontEndResult;
 import dev.flang.lsp.server.records.ParserCacheRecord;
 import dev.flang.me.MiddleEnd;
 import dev.flang.opt.Optimizer;
 import dev.flang.parser.Lexer.Token;
 import dev.flang.util.ANY;
 import dev.flang.util.Errors;
+import dev.flang.util.SourceFile;
 import dev.flang.util.SourcePosition;
 
 /**
@@ -77,23 +89,199 @@ public class FuzionParser extends ANY
   /**
    * maps temporary files which are fed to the parser to their original uri.
    */
-  private static TreeMap<String, URI> tempFile2Uri = new TreeMap<>();
+  private static Map<String, URI> tempFile2Uri = new ConcurrentHashMap<>();
+
+  /**
+   * the uri of every source file we have seen, by identity of the source file.
+   * the parser creates one SourceFile per file, so this saves looking up the
+   * path for every position.
+   */
+  private static Map<SourceFile, URI> sourceFile2Uri = Collections.synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * maps temporary files which are fed to the parser to the source text they contain.
+   */
+  private static Map<String, String> tempFile2SourceText = new ConcurrentHashMap<>();
 
   static final int MAX_ENTRIES = 20;
-  // LRU-Cache holding the most recent results of parser
+  /**
+   * rough memory retained by the compiler objects of a parser cache record:
+   * the part of the standard library every universe loads, and the
+   * features and calls of the parsed source file.
+   */
+  static final long BYTES_PER_UNIVERSE = 8 * 1024 * 1024;
+  static final long BYTES_PER_FEATURE = 4 * 1024;
+  static final long BYTES_PER_CALL = 512;
+
+  // LRU-Cache holding the most recent results of parser, see EvictDownTo
   private static Map<String, ParserCacheRecord> sourceText2ParserCache = Collections.synchronizedMap(
-    new LinkedHashMap<String, ParserCacheRecord>(MAX_ENTRIES + 1, .75F, true) {
-      public boolean removeEldestEntry(Map.Entry<String, ParserCacheRecord> eldest)
+    new LinkedHashMap<String, ParserCacheRecord>(MAX_ENTRIES + 1, .75F, true));
+  private static Map<AbstractFeature, Resolution> universe2ResolutionMap =
+    Collections.synchronizedMap(new IdentityHashMap<>());
+
+  /**
+   * the parser cache records that are not demoted, by their universe
+   */
+  private static Map<AbstractFeature, ParserCacheRecord> universe2ParserCacheRecord =
+    Collections.synchronizedMap(new IdentityHashMap<>());
+
+  /**
+   * for documents opened in the client: the most recent parser cache record
+   * that was created without any errors.
+   */
+  private static final Map<URI, ParserCacheRecord> uri2LastGoodParserCacheRecord = new ConcurrentHashMap<>();
+
+  /**
+   * source texts that are waiting to be parsed on the executor, see ParseInBackground
+   */
+  private static final Set<String> parsingInBackground = ConcurrentHashMap.newKeySet();
+
+  /**
+   * the most recent parser cache record created for a uri, as input of queries.
+   * queries answered from a snapshot depend on this since the snapshot changes
+   * when parsing in the background has finished.
+   */
+  private static final Input<URI, ParserCacheRecord> parserCacheRecords = new Input<>();
+
+  /**
+   * drop everything we hold for parser cache record
+   * if it is neither in the parser cache nor the last good record of a document.
+   * @param parserCacheRecord
+   */
+  private static void ReleaseIfUnused(ParserCacheRecord parserCacheRecord)
+  {
+    if (!sourceText2ParserCache.containsValue(parserCacheRecord)
+      && !uri2LastGoodParserCacheRecord.containsValue(parserCacheRecord))
+      {
+        Release(parserCacheRecord);
+      }
+  }
+
+  /**
+   * drop everything we hold for parser cache record
+   * @param parserCacheRecord
+   */
+  private static void Release(ParserCacheRecord parserCacheRecord)
+  {
+    if (!parserCacheRecord.frontEndResult().isDemoted())
       {
-        var removeEldestEntry = size() > MAX_ENTRIES;
-        if (removeEldestEntry)
+        Unregister(parserCacheRecord);
+      }
+    RemoveTempFiles(parserCacheRecord.uri(), parserCacheRecord.sourceText());
+  }
+
+  /**
+   * make the compiler objects of parserCacheRecord available to lookups by universe
+   * @param parserCacheRecord
+   */
+  private static void Register(ParserCacheRecord parserCacheRecord)
+  {
+    universe2ResolutionMap.put(parserCacheRecord.mir().universe(), parserCacheRecord.resolution());
+    universe2ParserCacheRecord.put(parserCacheRecord.mir().universe(), parserCacheRecord);
+  }
+
+  /**
+   * drop all lookups and caches that refer to the compiler objects of parserCacheRecord
+   * @param parserCacheRecord
+   */
+  private static void Unregister(ParserCacheRecord parserCacheRecord)
+  {
+    var universe = parserCacheRecord.mir().universe();
+    universe2ResolutionMap.remove(universe);
+    universe2ParserCacheRecord.remove(universe);
+    FeatureCache.Evict(universe);
+    Query.Evict(universe);
+  }
+
+  /**
+   * hold the compiler objects of parserCacheRecord only softly.
+   * its tables, errors and source text stay available, so the record can
+   * be promoted again cheaply if the garbage collector has not reclaimed them.
+   * @param parserCacheRecord
+   */
+  private static void Demote(ParserCacheRecord parserCacheRecord)
+  {
+    if (!parserCacheRecord.frontEndResult().isDemoted())
+      {
+        Unregister(parserCacheRecord);
+        parserCacheRecord.frontEndResult().demote();
+      }
+  }
+
+  /**
+   * hold the compiler objects of parserCacheRecord strongly again.
+   * @param parserCacheRecord
+   * @return parserCacheRecord, empty if its compiler objects have been reclaimed
+   */
+  private static Optional<ParserCacheRecord> Promote(ParserCacheRecord parserCacheRecord)
+  {
+    if (!parserCacheRecord.frontEndResult().isDemoted())
+      {
+        return Optional.of(parserCacheRecord);
+      }
+    if (parserCacheRecord.frontEndResult().promote() == null)
+      {
+        return Optional.empty();
+      }
+    Register(parserCacheRecord);
+    return Optional.of(parserCacheRecord);
+  }
+
+  /**
+   * @param universe
+   * @return true iff the parser cache record of universe has neither been released nor demoted
+   */
+  static boolean IsAlive(AbstractFeature universe)
+  {
+    return universe2ResolutionMap.containsKey(universe);
+  }
+
+  /**
+   * @param universe
+   * @return the parser cache record universe belongs to if it is not demoted
+   */
+  static Optional<ParserCacheRecord> ParserCacheRecordOf(AbstractFeature universe)
+  {
+    return Optional.ofNullable(universe2ParserCacheRecord.get(universe));
+  }
+
+  /**
+   * delete the temporary files we fed to the parser for sourceText of uri
+   * @param uri
+   * @param sourceText
+   */
+  private static void RemoveTempFiles(URI uri, String sourceText)
+  {
+    tempFile2Uri
+      .entrySet()
+      .removeIf(entry -> {
+        var tempFile = entry.getKey();
+        var remove = uri.equals(entry.getValue()) && sourceText.equals(tempFile2SourceText.get(tempFile));
+        if (remove)
           {
-            universe2ResolutionMap.remove(eldest.getValue().mir().universe());
+            tempFile2SourceText.remove(tempFile);
+            new File(tempFile).delete();
           }
-        return removeEldestEntry;
+        return remove;
+      });
+  }
+
+  /**
+   * the document uri has been closed in the client.
+   * its parser cache records stay in the cache, so reopening the document
+   * with the same text is cheap, but they are the first to be evicted.
+   * see EvictDownTo.
+   * @param uri
+   */
+  public static void Close(URI uri)
+  {
+    parserCacheRecords.set(uri, null);
+    var lastGood = uri2LastGoodParserCacheRecord.remove(uri);
+    if (lastGood != null)
+      {
+        ReleaseIfUnused(lastGood);
       }
-    });
-  private static HashMap<AbstractFeature, Resolution> universe2ResolutionMap = new HashMap<>();
+  }
 
   /**
    * @param uri
@@ -105,7 +293,7 @@ public class FuzionParser extends ANY
       {
         return getParserCacheRecord(uri).mir().universe();
       }
-    return getParserCacheRecord(uri).mir().main();
+    return Snapshot(uri).mir().main();
   }
 
   public static AbstractFeature MainOrUniverse(TextDocumentIdentifier params)
@@ -122,22 +310,303 @@ public class FuzionParser extends ANY
   {
     var sourceText = SourceText.getText(uri);
 
-    var result = sourceText2ParserCache.computeIfAbsent(sourceText, st -> computeParserCache(uri, true));
+    var result = sourceText2ParserCache.get(sourceText);
+    if (result != null && !IsMappable(uri, result, sourceText))
+      {
+        // the text result was parsed from has dropped out of the history, e.g.
+        // after many edits or an undo, so its positions would come back wrong.
+        sourceText2ParserCache.remove(sourceText);
+        ReleaseIfUnused(result);
+        result = null;
+      }
+    if (result != null && Promote(result).isEmpty())
+      {
+        // the garbage collector has reclaimed the compiler objects of the demoted record
+        sourceText2ParserCache.remove(sourceText);
+        ReleaseIfUnused(result);
+        result = null;
+      }
+    if (result == null)
+      {
+        result = ReusableParserCacheRecord(uri, sourceText)
+          .orElseGet(() -> {
+            var parserCacheRecord = computeParserCache(uri);
+            RememberIfGood(uri, parserCacheRecord);
+            return parserCacheRecord;
+          });
+        sourceText2ParserCache.put(sourceText, result);
+        parserCacheRecords.set(uri, result);
+        UpdateIndices(uri, result);
+        EvictDownTo(Config.ParserCacheBudget());
+      }
     // NYI remove this. restores Types.resolved
     Types.resolved = result.resolved();
     return result;
   }
 
-  private static ParserCacheRecord computeParserCache(URI uri, boolean clearAfterParsing)
+  /**
+   * update the workspace symbol index, the call graph and the inheritance index with a new parse result of uri.
+   * the standard library is indexed once, on the executor after the current request.
+   * @param uri
+   * @param parserCacheRecord
+   */
+  private static void UpdateIndices(URI uri, ParserCacheRecord parserCacheRecord)
+  {
+    Types.resolved = parserCacheRecord.resolved();
+    var astIndex = parserCacheRecord.astIndex();
+    if (!IsStdLib(uri) && astIndex.features().length > 0)
+      {
+        // the features and calls have been collected once when the record was created
+        SymbolIndex.Index(uri, Arrays.stream(astIndex.features()));
+        CallGraph.Index(uri, astIndex);
+        InheritanceIndex.Index(uri, Arrays.stream(astIndex.features()));
+      }
+    if (stdLibIndexed.compareAndSet(false, true))
+      {
+        // hold the compiler objects while indexing, the record may be demoted meanwhile
+        var universe = parserCacheRecord.mir().universe();
+        var resolution = parserCacheRecord.resolution();
+        var resolved = parserCacheRecord.resolved();
+        Concurrency.RunOnExecutor(() -> IndexStdLib(resolution, resolved, universe));
+      }
+  }
+
+  /**
+   * the standard library is indexed once, if this fails it is not retried.
+   */
+  private static final AtomicBoolean stdLibIndexed = new AtomicBoolean(false);
+
+  /**
+   * add the features of the standard library loaded by universe to the indices.
+   * NOTE: does not use the caches, it only reads features via the resolution
+   * universe was created with. It takes the parser lock since parsing resets
+   * the statics of the compiler the features depend on.
+   * @param resolution
+   * @param resolved
+   * @param universe
+   */
+  private synchronized static void IndexStdLib(Resolution resolution, Resolved resolved, AbstractFeature universe)
   {
-    var parserCacheRecord = createParserCacheRecord(uri);
-    universe2ResolutionMap.put(parserCacheRecord.mir().universe(), parserCacheRecord.frontEnd().res());
-    // NYI
-    if (clearAfterParsing)
+    // NYI remove this. restores Types.resolved
+    Types.resolved = resolved;
+    try
+      {
+        DeclaredFeaturesRecursive(resolution, universe)
+          .filter(f -> !f.isUniverse() && IsStdLib(getUri(f.pos())))
+          .collect(Collectors.groupingBy(f -> getUri(f.pos())))
+          .forEach((uri, features) -> {
+            SymbolIndex.Index(uri, features.stream());
+            InheritanceIndex.Index(uri, features.stream());
+          });
+      }
+    catch (RuntimeException e)
       {
-        ClearStaticallyHeldStuffInFuzionCompiler();
+        Log.message("indexing the standard library failed: " + e.getMessage(), MessageType.Warning);
       }
-    afterParsing();
+  }
+
+  private static Stream<AbstractFeature> DeclaredFeaturesRecursive(Resolution resolution, AbstractFeature feature)
+  {
+    return Stream.concat(Stream.of(feature), resolution._module
+      .declaredFeatures(feature)
+      .values()
+      .stream()
+      .filter(f -> !FeatureTool.IsAnonymousInnerFeature(f))
+      .flatMap(f -> DeclaredFeaturesRecursive(resolution, f)));
+  }
+
+  /**
+   * @param uri
+   * @param parserCacheRecord
+   * @param sourceText the current text of uri
+   * @return true iff positions in parserCacheRecord can be mapped to sourceText
+   */
+  private static boolean IsMappable(URI uri, ParserCacheRecord parserCacheRecord, String sourceText)
+  {
+    return IsStdLib(uri)
+      || parserCacheRecord.sourceText() == sourceText
+      || PositionMapping.CanMap(uri, parserCacheRecord.sourceText())
+      || parserCacheRecord.sourceText().equals(sourceText);
+  }
+
+  /**
+   * If the previous version of the text of uri differs from sourceText only
+   * in comments or whitespace that does not matter to the parser, the parser
+   * cache record of the previous version is still valid. Positions in it are
+   * mapped to sourceText via PositionMapping.
+   *
+   * @param uri
+   * @param sourceText the current text of uri
+   * @return the parser cache record of the previous version if it can be reused
+   */
+  private static Optional<ParserCacheRecord> ReusableParserCacheRecord(URI uri, String sourceText)
+  {
+    if (IsStdLib(uri))
+      {
+        return Optional.empty();
+      }
+    return PositionMapping.PreviousVersion(uri)
+      .filter(previousText -> sourceText2ParserCache.containsKey(previousText))
+      .filter(previousText -> FuzionLexer.IsTriviaOnlyChange(previousText, sourceText))
+      .map(previousText -> sourceText2ParserCache.get(previousText))
+      .filter(parserCacheRecord -> parserCacheRecord != null && IsMappable(uri, parserCacheRecord, sourceText))
+      .flatMap(parserCacheRecord -> Promote(parserCacheRecord));
+  }
+
+  /**
+   * stale-while-revalidate: for documents that are open in the client we
+   * answer from the last parser cache record without errors while the current
+   * source text is still being parsed in the background or can not be parsed
+   * without errors.
+   *
+   * @param uri
+   * @return the parser cache record queries about uri should be answered from.
+   */
+  private synchronized static ParserCacheRecord Snapshot(URI uri)
+  {
+    // queries answered from the snapshot depend on the parse results of uri
+    parserCacheRecords.get(uri);
+
+    var lastGood = SourceText.isOpen(uri) ? uri2LastGoodParserCacheRecord.get(uri): null;
+    if (lastGood == null || !PositionMapping.CanMap(uri, lastGood.sourceText()))
+      {
+        return getParserCacheRecord(uri);
+      }
+    var sourceText = SourceText.getText(uri);
+    var current = Optional.ofNullable(sourceText2ParserCache.get(sourceText))
+      .flatMap(parserCacheRecord -> Promote(parserCacheRecord))
+      .orElse(null);
+    if (current == null)
+      {
+        ParseInBackground(uri, sourceText);
+      }
+    var result = current != null && current.errors().isEmpty() ? current: lastGood;
+    // NYI remove this. restores Types.resolved
+    Types.resolved = result.resolved();
+    return result;
+  }
+
+  /**
+   * parse sourceText of uri once the current request has been answered.
+   * like all work on the front end this runs on the executor, the compiler
+   * holds its state in statics that must not change while answering a request.
+   * @param uri
+   * @param sourceText
+   */
+  private static void ParseInBackground(URI uri, String sourceText)
+  {
+    if (parsingInBackground.add(sourceText))
+      {
+        Concurrency.RunOnExecutor(() -> {
+          try
+            {
+              if (sourceText.equals(SourceText.getText(uri)))
+                {
+                  getParserCacheRecord(uri);
+                }
+            } finally
+            {
+              parsingInBackground.remove(sourceText);
+            }
+        });
+      }
+  }
+
+  /**
+   * remember parserCacheRecord as the last good one for uri if it does not contain errors
+   * @param uri
+   * @param parserCacheRecord
+   */
+  private static void RememberIfGood(URI uri, ParserCacheRecord parserCacheRecord)
+  {
+    if (!SourceText.isOpen(uri) || !parserCacheRecord.errors().isEmpty())
+      {
+        return;
+      }
+    var previous = uri2LastGoodParserCacheRecord.put(uri, parserCacheRecord);
+    if (previous != null && previous != parserCacheRecord)
+      {
+        ReleaseIfUnused(previous);
+      }
+  }
+
+  /**
+   * @return the estimated memory retained by all records in the parser cache that are not demoted
+   */
+  private static long EstimatedCacheSize()
+  {
+    synchronized (sourceText2ParserCache)
+      {
+        return sourceText2ParserCache
+          .values()
+          .stream()
+          .distinct()
+          .filter(parserCacheRecord -> !parserCacheRecord.frontEndResult().isDemoted())
+          .mapToLong(parserCacheRecord -> parserCacheRecord.estimatedSize())
+          .sum();
+      }
+  }
+
+  /**
+   * evict parser cache records, least recently used first, until there
+   * are at most MAX_ENTRIES records, and demote records until the records
+   * that are not demoted are estimated to use at most budget bytes.
+   * Records of documents that are not open in the client are evicted first.
+   * The most recently used record, the record of the current text of an open
+   * document and the last good record of an open document are never demoted.
+   *
+   * @param budget
+   */
+  private static void EvictDownTo(long budget)
+  {
+    synchronized (sourceText2ParserCache)
+      {
+        for(var evictOpenDocuments : new boolean[] { false, true })
+          {
+            var iterator = sourceText2ParserCache.entrySet().iterator();
+            while (iterator.hasNext()
+              && (sourceText2ParserCache.size() > MAX_ENTRIES || EstimatedCacheSize() > budget))
+              {
+                var entry = iterator.next();
+                var parserCacheRecord = entry.getValue();
+                var isOpen = SourceText.isOpen(parserCacheRecord.uri());
+                // the most recently used record is the one that is being returned
+                var isMostRecentlyUsed = !iterator.hasNext();
+                if (isOpen == evictOpenDocuments
+                  && !isMostRecentlyUsed
+                  && !(isOpen && entry.getKey().equals(SourceText.getText(parserCacheRecord.uri()))))
+                  {
+                    if (sourceText2ParserCache.size() > MAX_ENTRIES)
+                      {
+                        iterator.remove();
+                        ReleaseIfUnused(parserCacheRecord);
+                      }
+                    else if (!uri2LastGoodParserCacheRecord.containsValue(parserCacheRecord))
+                      {
+                        Demote(parserCacheRecord);
+                      }
+                  }
+              }
+          }
+      }
+  }
+
+  /**
+   * called when the heap is running full, keeps only the parser cache records
+   * of the current texts of open documents.
+   * NOTE: must run on the executor, records must not be demoted while a
+   * request is using them.
+   */
+  public synchronized static void OnMemoryPressure()
+  {
+    EvictDownTo(0);
+  }
+
+  private static ParserCacheRecord computeParserCache(URI uri)
+  {
+    var parserCacheRecord = createParserCacheRecord(uri);
+    // NYI
+    ClearStaticallyHeldStuffInFuzionCompiler();
     return parserCacheRecord;
   }
 
@@ -156,13 +625,45 @@ public class FuzionParser extends ANY
     // NYI
     ClearStaticallyHeldStuffInFuzionCompiler();
 
-    var frontEndOptions = FrontEndOptions(uri);
+    var sourceText = SourceTextToParse(uri);
+    var frontEndOptions = FrontEndOptions(uri, sourceText);
     var frontEnd = new FrontEnd(frontEndOptions);
     var mir = frontEnd.createMIR();
     var errors = Errors.errors();
     var warnings = Errors.warnings();
 
-    return new ParserCacheRecord(mir, frontEndOptions, frontEnd, errors, warnings, Types.resolved);
+    universe2ResolutionMap.put(mir.universe(), frontEnd.res());
+    var main = mir.main();
+    // the tables are built once while the compiler objects are at hand, they
+    // do not refer to the AST and outlive a demotion of the record.
+    var astIndex = IsStdLib(uri) || main == null || main.isUniverse()
+      ? AstIndex.EMPTY
+      : FeatureTool.AstIndex(main);
+    var parserCacheRecord = new ParserCacheRecord(
+      new DemotableReference<>(new FrontEndResult(mir, frontEnd.res(), Types.resolved, astIndex)),
+      errors, warnings, sourceText, uri, EstimatedSize(sourceText, astIndex),
+      astIndex == AstIndex.EMPTY ? FeatureTable.EMPTY: FeatureTool.FeatureTable(astIndex),
+      astIndex == AstIndex.EMPTY ? CallTable.EMPTY: FeatureTool.CallTable(astIndex));
+    Register(parserCacheRecord);
+    return parserCacheRecord;
+  }
+
+  /**
+   * @param sourceText
+   * @param astIndex
+   * @return estimate of the memory retained by the compiler objects of a parse of sourceText
+   */
+  private static long EstimatedSize(String sourceText, AstIndex astIndex)
+  {
+    return BYTES_PER_UNIVERSE
+      + 2L * sourceText.length()
+      + BYTES_PER_FEATURE * astIndex.features().length
+      + BYTES_PER_CALL * astIndex.calls().length;
+  }
+
+  private static String SourceTextToParse(URI uri)
+  {
+    return IsStdLib(uri) ? "dummyFeature is": SourceText.getText(uri);
   }
 
   /**
@@ -184,7 +685,10 @@ public class FuzionParser extends ANY
     ChoiceIdAsRef.preallocated_.clear();
 
     // NYI remove recreation of MIR
-    var parserCacheRecord = computeParserCache(uri, false);
+    ClearStaticallyHeldStuffInFuzionCompiler();
+    var frontEndOptions = FrontEndOptions(uri, SourceTextToParse(uri));
+    var frontEnd = new FrontEnd(frontEndOptions);
+    var mir = frontEnd.createMIR();
 
     if (Errors.count() > 0)
       {
@@ -192,20 +696,19 @@ public class FuzionParser extends ANY
       }
 
     var air =
-      new MiddleEnd(parserCacheRecord.frontEndOptions(), parserCacheRecord.mir(),
-        parserCacheRecord.frontEnd().res()._module)
-          .air();
+      new MiddleEnd(frontEndOptions, mir, frontEnd.res()._module)
+        .air();
 
     // NYI remove this once unnecessary
     Instance.universe = new Instance(Clazzes.universe.get());
 
-    var fuir = new Optimizer(parserCacheRecord.frontEndOptions(), air).fuir();
+    var fuir = new Optimizer(frontEndOptions, air).fuir();
     return Optional.of(fuir);
   }
 
-  private static FrontEndOptions FrontEndOptions(URI uri)
+  private static FrontEndOptions FrontEndOptions(URI uri, String sourceText)
   {
-    File tempFile = FuzionParser.toTempFile(uri);
+    File tempFile = FuzionParser.toTempFile(uri, sourceText);
     var frontEndOptions = FrontEndOptions(tempFile);
     return frontEndOptions;
   }
@@ -226,21 +729,37 @@ public class FuzionParser extends ANY
    */
   public static URI getUri(SourcePosition sourcePosition)
   {
-    var result = tempFile2Uri.get(sourcePosition._sourceFile._fileName.toString());
-    if (result != null)
+    var sourceFile = sourcePosition._sourceFile;
+    var result = sourceFile2Uri.get(sourceFile);
+    if (result == null)
       {
-        return result;
+        result = tempFile2Uri.get(sourceFile._fileName.toString());
+        if (result == null)
+          {
+            result = Util.Intern(sourceFile._fileName.toUri());
+          }
+        sourceFile2Uri.put(sourceFile, result);
       }
-    return sourcePosition._sourceFile._fileName.toUri();
+    return result;
   }
 
-  private static File toTempFile(URI uri)
+  /**
+   * @param sourcePosition
+   * @return the source text sourcePosition refers to if sourcePosition is in a
+   * temporary file we fed to the parser, otherwise null.
+   */
+  static String SourceTextOf(SourcePosition sourcePosition)
+  {
+    return tempFile2SourceText.get(sourcePosition._sourceFile._fileName.toString());
+  }
+
+  private static File toTempFile(URI uri, String sourceText)
   {
-    var sourceText = IsStdLib(uri) ? "dummyFeature is": SourceText.getText(uri);
     File sourceFile = IO.writeToTempFile(sourceText);
     try
       {
-        tempFile2Uri.put(sourceFile.toPath().toString(), uri);
+        tempFile2Uri.put(sourceFile.toPath().toString(), Util.Intern(uri));
+        tempFile2SourceText.put(sourceFile.toPath().toString(), sourceText);
       }
     catch (Exception e)
       {
@@ -251,7 +770,11 @@ public class FuzionParser extends ANY
 
   public static AbstractFeature universe(URI uri)
   {
-    return getParserCacheRecord(uri).mir().universe();
+    if (IsStdLib(uri))
+      {
+        return getParserCacheRecord(uri).mir().universe();
+      }
+    return Snapshot(uri).mir().universe();
   }
 
   public static AbstractFeature universe(TextDocumentPositionParams params)
@@ -259,6 +782,16 @@ public class FuzionParser extends ANY
     return universe(LSP4jUtils.getUri(params));
   }
 
+  /**
+   * member tables of features, computed once per feature and kept
+   * as long as the parser cache record of the feature is alive.
+   */
+  private static final FeatureCache<AbstractFeature[]> DeclaredFeaturesTable = new FeatureCache<>();
+  private static final FeatureCache<AbstractFeature[]> DeclaredFeaturesInclAnonymousTable = new FeatureCache<>();
+  private static final FeatureCache<AbstractFeature[]> DeclaredOrInheritedFeaturesTable = new FeatureCache<>();
+  private static final FeatureCache<AbstractFeature[]> DeclaredFeaturesOfFeatureAndParentsTable =
+    new FeatureCache<>();
+
   public static Stream<AbstractFeature> DeclaredFeatures(AbstractFeature f)
   {
     return DeclaredFeatures(f, false);
@@ -266,33 +799,73 @@ public class FuzionParser extends ANY
 
   public static Stream<AbstractFeature> DeclaredOrInheritedFeatures(AbstractFeature f)
   {
-    return FeatureTool.universe(f).map(universe -> {
-      return universe2ResolutionMap.get(universe)._module.declaredOrInheritedFeatures(f)
-        .values()
-        .stream();
-    }).orElse(Stream.empty());
+    return Arrays.stream(DeclaredOrInheritedFeaturesTable.get(f, feature -> {
+      return ResolutionOf(feature).map(resolution -> {
+        return resolution._module.declaredOrInheritedFeatures(feature)
+          .values()
+          .toArray(AbstractFeature[]::new);
+      }).orElse(new AbstractFeature[0]);
+    }));
   }
 
   public static Stream<AbstractFeature> DeclaredFeatures(AbstractFeature f, boolean IncludeAnonymousInnerFeatures)
   {
-    return FeatureTool.universe(f).map(universe -> {
-      return universe2ResolutionMap.get(universe)._module
-        .declaredFeatures(f)
-        .values()
-        .stream();
-    })
-      .orElse(Stream.empty())
-      .filter(feat -> IncludeAnonymousInnerFeatures || !FeatureTool.IsAnonymousInnerFeature(feat));
+    if (IncludeAnonymousInnerFeatures)
+      {
+        return Arrays.stream(DeclaredFeaturesInclAnonymous(f));
+      }
+    return Arrays.stream(DeclaredFeaturesTable.get(f, feature -> {
+      return Arrays.stream(DeclaredFeaturesInclAnonymous(feature))
+        .filter(feat -> !FeatureTool.IsAnonymousInnerFeature(feat))
+        .toArray(AbstractFeature[]::new);
+    }));
   }
 
-  private static final TreeMap<AbstractFeature, SourcePosition> EndOfFeature = new TreeMap<>();
+  private static AbstractFeature[] DeclaredFeaturesInclAnonymous(AbstractFeature f)
+  {
+    return DeclaredFeaturesInclAnonymousTable.get(f, feature -> {
+      return ResolutionOf(feature).map(resolution -> {
+        return resolution._module
+          .declaredFeatures(feature)
+          .values()
+          .toArray(AbstractFeature[]::new);
+      }).orElse(new AbstractFeature[0]);
+    });
+  }
 
-  private static void afterParsing()
+  /**
+   * @param feature
+   * @return the resolution feature was created with, empty if the parser cache
+   * record of feature has been demoted or released meanwhile.
+   */
+  private static Optional<Resolution> ResolutionOf(AbstractFeature feature)
+  {
+    return FeatureTool.universe(feature).map(universe -> universe2ResolutionMap.get(universe));
+  }
+
+  /**
+   * @param f
+   * @return the features declared in f followed by the features declared in the
+   * features f directly inherits from.
+   */
+  public static Stream<AbstractFeature> DeclaredFeaturesOfFeatureAndParents(AbstractFeature f)
   {
-    // NYI make this less bad
-    EndOfFeature.clear();
+    return Arrays.stream(DeclaredFeaturesOfFeatureAndParentsTable.get(f, feature -> {
+      var featuresViaInheritance =
+        feature.inherits().stream().flatMap(c -> DeclaredFeatures(c.calledFeature()));
+      return Stream.concat(DeclaredFeatures(feature), featuresViaInheritance)
+        .toArray(AbstractFeature[]::new);
+    }));
   }
 
+  /**
+   * the end of a feature depends on the current source text,
+   * it is recomputed only when this changes.
+   * NOTE: like comments it is not stored in the snapshot by id, see FeatureTool.Comments.
+   */
+  private static final Query<AbstractFeature, SourcePosition> EndOfFeature =
+    new Query<>(f -> ComputeEndOfFeature(f));
+
   /**
    * NYI replace by real end of feature once we have this information in the AST
    * NOTE: since this is a very expensive calculation and frequently used we cache this
@@ -301,39 +874,43 @@ public class FuzionParser extends ANY
    */
   public static SourcePosition endOfFeature(AbstractFeature feature)
   {
-    return EndOfFeature.computeIfAbsent(feature, f -> {
-      if (FeatureTool.IsArgument(f))
-        {
-          // NYI make this more idiomatic?
-          return new SourcePosition(f.pos()._sourceFile, 1, 1);
-        }
-      if (!f.isUniverse() && FeatureTool.IsOfLastFeature(f))
-        {
-          var sourceText = SourceText.getText(FuzionParser.getUri(f.pos()));
-          var lines = sourceText.split("\n").length;
-          return new SourcePosition(f.pos()._sourceFile, lines + 1, 1);
-        }
-      var uri = getUri(f.pos());
-      return ASTWalker.Traverse(f)
-        .filter(entry -> entry.getValue() != null)
-        .filter(ASTItem.IsItemInFile(uri))
-        .filter(entry -> entry.getValue().compareTo(f) == 0)
-        .map(entry -> ASTItem.sourcePosition(entry.getKey()))
-        .filter(sourcePositionOption -> sourcePositionOption.isPresent())
-        .map(sourcePosition -> sourcePosition.get())
-        .sorted((Comparator<SourcePosition>) Comparator.<SourcePosition>reverseOrder())
-        .map(position -> {
-          var start = FuzionLexer.endOfToken(uri, Bridge.ToPosition(position));
-          var line = SourceText.RestOfLine(LSP4jUtils.TextDocumentPositionParams(uri, start));
-          // NYI maybe use inverse hashset here? i.e. state which tokens can
-          // be skipped
-          var token = FuzionLexer.nextTokenOfType(line, Util.HashSetOf(Token.t_eof, Token.t_ident, Token.t_semicolon,
-            Token.t_rbrace, Token.t_rcrochet, Token.t_rparen));
-          return new SourcePosition(position._sourceFile, position._line, start.getCharacter() + token.end()._column);
-        })
-        .findFirst()
-        .orElse(f.pos());
-    });
+    return EndOfFeature.get(feature);
+  }
+
+  private static SourcePosition ComputeEndOfFeature(AbstractFeature f)
+  {
+    if (FeatureTool.IsArgument(f))
+      {
+        // NYI make this more idiomatic?
+        return new SourcePosition(f.pos()._sourceFile, 1, 1);
+      }
+    if (!f.isUniverse() && FeatureTool.IsOfLastFeature(f))
+      {
+        var sourceText = SourceText.getText(FuzionParser.getUri(f.pos()));
+        var lines = sourceText.split("\n").length;
+        return Bridge.ToSourcePosition(f.pos(), new Position(lines, 0));
+      }
+    var uri = getUri(f.pos());
+    return ASTWalker.Traverse(f)
+      .filter(entry -> entry.getValue() != null)
+      .filter(ASTItem.IsItemInFile(uri))
+      .filter(entry -> entry.getValue().compareTo(f) == 0)
+      .map(entry -> ASTItem.sourcePosition(entry.getKey()))
+      .filter(sourcePositionOption -> sourcePositionOption.isPresent())
+      .map(sourcePosition -> sourcePosition.get())
+      .sorted((Comparator<SourcePosition>) Comparator.<SourcePosition>reverseOrder())
+      .map(position -> {
+        var start = FuzionLexer.endOfToken(uri, Bridge.ToPosition(position));
+        var line = SourceText.RestOfLine(LSP4jUtils.TextDocumentPositionParams(uri, start));
+        // NYI maybe use inverse hashset here? i.e. state which tokens can
+        // be skipped
+        var token = FuzionLexer.nextTokenOfType(line, Util.HashSetOf(Token.t_eof, Token.t_ident, Token.t_semicolon,
+          Token.t_rbrace, Token.t_rcrochet, Token.t_rparen));
+        return Bridge.ToSourcePosition(position,
+          new Position(start.getLine(), start.getCharacter() + token.end()._column - 1));
+      })
+      .findFirst()
+      .orElse(f.pos());
   }
 
   private static Optional<Interpreter> Interpreter(URI uri)
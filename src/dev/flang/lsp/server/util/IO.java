@@ -38,13 +38,19 @@ import java.io.PipedOutputStream;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
+import java.net.URI;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.eclipse.lsp4j.MessageParams;
 import org.eclipse.lsp4j.MessageType;
 
 import dev.flang.lsp.server.Config;
+import dev.flang.lsp.server.Util;
 
 public class IO
 {
@@ -188,4 +194,50 @@ public class IO
       }
   }
 
+  /**
+   * the fuzion files in the workspace, cached until InvalidateWorkspaceFiles is called
+   */
+  private static volatile List<URI> workspaceFiles = null;
+
+  /**
+   * @return uris of all fuzion source files below the workspace roots
+   */
+  public static List<URI> WorkspaceFiles()
+  {
+    var result = workspaceFiles;
+    if (result == null)
+      {
+        result = Config.workspaceRoots()
+          .stream()
+          .flatMap(root -> FuzionFiles(Path.of(root)))
+          .map(path -> Util.Intern(path.toUri()))
+          .collect(Collectors.toUnmodifiableList());
+        workspaceFiles = result;
+      }
+    return result;
+  }
+
+  /**
+   * files have been created or deleted in the workspace
+   */
+  public static void InvalidateWorkspaceFiles()
+  {
+    workspaceFiles = null;
+  }
+
+  private static Stream<Path> FuzionFiles(Path root)
+  {
+    try (var paths = Files.walk(root))
+      {
+        return paths
+          .filter(path -> path.toString().endsWith(".fz") && Files.isRegularFile(path))
+          .collect(Collectors.toList())
+          .stream();
+      }
+    catch (IOException e)
+      {
+        return Stream.empty();
+      }
+  }
+
 }
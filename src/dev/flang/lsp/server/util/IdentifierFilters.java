@@ -0,0 +1,75 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class IdentifierFilters
+ *
+ *---------------------------------------------------------------------*/
+
+
+package dev.flang.lsp.server.util;
+
+import java.net.URI;
+
+import dev.flang.lsp.server.SourceText;
+import dev.flang.parser.Lexer.Token;
+
+/**
+ * a Bloom filter of the identifiers and operators in every file.
+ * searches across files use it to skip files that can not contain a name.
+ * the filters depend on the source text and are recomputed when it changes.
+ */
+public class IdentifierFilters
+{
+
+  private static final Query<URI, BloomFilter> Filters = new Query<>(uri -> ComputeFilter(uri));
+
+  /**
+   * @param uri
+   * @param name base name of a feature, e.g. "say" or "infix +"
+   * @return false if the text of uri definitely does not contain name
+   */
+  public static boolean MightContain(URI uri, String name)
+  {
+    return Filters.get(uri).mightContain(Identifier(name));
+  }
+
+  /**
+   * the token that refers to a feature with name, i.e. "+" for "infix +"
+   */
+  private static String Identifier(String name)
+  {
+    return name.substring(name.lastIndexOf(' ') + 1);
+  }
+
+  private static BloomFilter ComputeFilter(URI uri)
+  {
+    var sourceText = SourceText.getText(uri);
+    var tokens = FuzionLexer.RawTokens(uri, sourceText, 0, Integer.MAX_VALUE);
+    var result = new BloomFilter(tokens.size());
+    tokens
+      .stream()
+      .filter(token -> token.token() == Token.t_ident || token.token() == Token.t_op)
+      .forEach(token -> result.add(token.text()));
+    return result;
+  }
+
+}
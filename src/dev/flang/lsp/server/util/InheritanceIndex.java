@@ -0,0 +1,235 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class InheritanceIndex
+ *
+ *---------------------------------------------------------------------*/
+
+
+package dev.flang.lsp.server.util;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import dev.flang.ast.AbstractFeature;
+import dev.flang.lsp.server.records.InheritanceEdge;
+import dev.flang.lsp.server.records.SymbolIndexEntry;
+
+/**
+ * which features inherit from and redefine which, in the standard library
+ * and all files that have been parsed. Features are identified by their
+ * keys, see CallGraph.Key, so features of the same qualified name in
+ * different files and overloads of different arity are kept apart.
+ * Both directions are indexed so that neither supertypes nor subtypes
+ * require walking the universe.
+ * The edges of a file are replaced whenever it is parsed again.
+ */
+public class InheritanceIndex
+{
+
+  private static final Object lock = new Object();
+
+  private static final Map<URI, List<InheritanceEdge>> uri2Edges = new HashMap<>();
+
+  private static final Map<String, List<InheritanceEdge>> parents = new HashMap<>();
+
+  private static final Map<String, List<InheritanceEdge>> heirs = new HashMap<>();
+
+  private static final Map<String, List<InheritanceEdge>> redefinitions = new HashMap<>();
+
+  /**
+   * the features that occur in an edge, by key and the file whose edges refer to them.
+   * an entry created from the file that declares the feature is preferred, see Entry.
+   */
+  private static final Map<String, Map<URI, SymbolIndexEntry>> entries = new HashMap<>();
+
+  private static final Map<URI, Set<String>> uri2Entries = new HashMap<>();
+
+  /**
+   * replace the edges of uri by those of features
+   * @param uri
+   * @param features the features declared in uri
+   */
+  public static void Index(URI uri, Stream<AbstractFeature> features)
+  {
+    var newEntries = new HashMap<String, SymbolIndexEntry>();
+    var inherits = new ArrayList<InheritanceEdge>();
+    var redefines = new ArrayList<InheritanceEdge>();
+    features
+      .filter(f -> !f.isUniverse() && !FeatureTool.IsAnonymousInnerFeature(f))
+      .forEach(f -> {
+        var key = CallGraph.Key(f);
+        f.inherits()
+          .stream()
+          .map(c -> c.calledFeature())
+          .filter(parent -> parent != null && !parent.isUniverse())
+          .forEach(parent -> {
+            var parentKey = CallGraph.Key(parent);
+            inherits.add(new InheritanceEdge(uri, key, parentKey));
+            newEntries.putIfAbsent(parentKey, Entry(parent));
+          });
+        ErrorHandling.ResultOrDefault(() -> f.redefines(), Set.<AbstractFeature>of())
+          .forEach(redefined -> {
+            var redefinedKey = CallGraph.Key(redefined);
+            redefines.add(new InheritanceEdge(uri, key, redefinedKey));
+            newEntries.putIfAbsent(redefinedKey, Entry(redefined));
+          });
+        newEntries.put(key, SymbolIndex.ToEntry(uri, f));
+      });
+    synchronized (lock)
+      {
+        Remove(uri);
+        var edges = new ArrayList<InheritanceEdge>(inherits);
+        edges.addAll(redefines);
+        uri2Edges.put(uri, edges);
+        inherits.forEach(edge -> {
+          parents.computeIfAbsent(edge.feature(), k -> new ArrayList<>()).add(edge);
+          heirs.computeIfAbsent(edge.parent(), k -> new ArrayList<>()).add(edge);
+        });
+        redefines.forEach(edge -> redefinitions.computeIfAbsent(edge.parent(), k -> new ArrayList<>()).add(edge));
+        newEntries.forEach((key, entry) ->
+          entries.computeIfAbsent(key, k -> new HashMap<>()).put(uri, entry));
+        uri2Entries.put(uri, newEntries.keySet());
+      }
+  }
+
+  /**
+   * remove the edges and entries of uri
+   * @param uri
+   */
+  public static void Remove(URI uri)
+  {
+    synchronized (lock)
+      {
+        var keys = uri2Entries.remove(uri);
+        if (keys != null)
+          {
+            for(var key : keys)
+              {
+                entries.computeIfPresent(key, (k, v) -> {
+                  v.remove(uri);
+                  return v.isEmpty() ? null: v;
+                });
+              }
+          }
+        var edges = uri2Edges.remove(uri);
+        if (edges != null)
+          {
+            // every list is filtered once, a file may contain many heirs of the same feature
+            for(var feature : edges.stream().map(edge -> edge.feature()).collect(Collectors.toSet()))
+              {
+                RemoveEdgesOf(parents, feature, uri);
+              }
+            for(var parent : edges.stream().map(edge -> edge.parent()).collect(Collectors.toSet()))
+              {
+                RemoveEdgesOf(heirs, parent, uri);
+                RemoveEdgesOf(redefinitions, parent, uri);
+              }
+          }
+      }
+  }
+
+  private static void RemoveEdgesOf(Map<String, List<InheritanceEdge>> map, String key, URI uri)
+  {
+    map.computeIfPresent(key, (k, v) -> {
+      v.removeIf(e -> e.uri().equals(uri));
+      return v.isEmpty() ? null: v;
+    });
+  }
+
+  /**
+   * @param key
+   * @return keys of the features the feature with key inherits from
+   */
+  public static List<String> Parents(String key)
+  {
+    return Lookup(parents, key, edge -> edge.parent());
+  }
+
+  /**
+   * @param key
+   * @return keys of the features inheriting from the feature with key
+   */
+  public static List<String> Heirs(String key)
+  {
+    return Lookup(heirs, key, edge -> edge.feature());
+  }
+
+  /**
+   * @param key
+   * @return keys of the features redefining the feature with key
+   */
+  public static List<String> Redefinitions(String key)
+  {
+    return Lookup(redefinitions, key, edge -> edge.feature());
+  }
+
+  /**
+   * @param key
+   * @return name, kind and location of the feature with key if it has been indexed
+   */
+  public static Optional<SymbolIndexEntry> Entry(String key)
+  {
+    synchronized (lock)
+      {
+        var byUri = entries.getOrDefault(key, Map.of());
+        return byUri
+          .entrySet()
+          .stream()
+          .filter(e -> e.getKey().equals(e.getValue().uri()))
+          .map(e -> e.getValue())
+          .findFirst()
+          .or(() -> byUri.values().stream().findFirst());
+      }
+  }
+
+  private static List<String> Lookup(Map<String, List<InheritanceEdge>> map, String key,
+    Function<InheritanceEdge, String> other)
+  {
+    synchronized (lock)
+      {
+        return map.getOrDefault(key, List.of())
+          .stream()
+          .map(other)
+          .distinct()
+          .collect(Collectors.toList());
+      }
+  }
+
+  /**
+   * @param feature
+   * @return name, kind and location of feature
+   */
+  public static SymbolIndexEntry Entry(AbstractFeature feature)
+  {
+    return SymbolIndex.ToEntry(FuzionParser.getUri(feature.pos()), feature);
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class Input
+ *
+ *---------------------------------------------------------------------*/
+
+package dev.flang.lsp.server.util;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * an input of queries, e.g. the source text of a document.
+ * setting a new value starts a new revision, queries that read
+ * the old value will be recomputed when they are asked for next time.
+ */
+public class Input<K, V> extends QueryNode<K>
+{
+
+  private record Value<V>(V value, long changedAt)
+  {
+  }
+
+  private final Map<K, Value<V>> values = new ConcurrentHashMap<>();
+
+  /**
+   * @param key
+   * @return the current value for key, null if not set
+   */
+  public V get(K key)
+  {
+    read(key);
+    var result = values.get(key);
+    return result == null ? null: result.value();
+  }
+
+  /**
+   * @param key
+   * @param value the new value, null to remove the value
+   */
+  public void set(K key, V value)
+  {
+    values.compute(key, (k, old) -> {
+      if (old != null && Objects.equals(old.value(), value))
+        {
+          return old;
+        }
+      return new Value<>(value, NewRevision());
+    });
+  }
+
+  @Override
+  boolean changedAfter(Object key, long revision)
+  {
+    var value = values.get(key);
+    return value != null && value.changedAt() > revision;
+  }
+
+}
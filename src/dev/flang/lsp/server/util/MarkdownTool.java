@@ -32,15 +32,29 @@ import java.util.stream.Collectors;
 public class MarkdownTool
 {
 
+  /**
+   * characters that have a special meaning in markdown
+   */
+  private static final String SpecialCharacters = "\\`*_{}[]()#+-.!";
+
+  /**
+   * escape all characters in str that have a special meaning in markdown.
+   * @param str
+   * @return
+   */
   public static String Escape(String str)
   {
-    return Arrays.stream(new String[]
+    var result = new StringBuilder(str.length() + 16);
+    for(int i = 0; i < str.length(); i++)
       {
-          "\\", "`", "*", "_", "{", "}", "[", "]", "(", ")", "#", "+", "-", ".", "!"
-      })
-      .reduce(str, (text, token) -> {
-        return text.replaceAll("\\" + token, "\\" + token);
-      });
+        var c = str.charAt(i);
+        if (SpecialCharacters.indexOf(c) >= 0)
+          {
+            result.append('\\');
+          }
+        result.append(c);
+      }
+    return result.toString();
   }
 
   public static String Italic(String str)
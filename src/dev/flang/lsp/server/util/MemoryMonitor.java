@@ -0,0 +1,88 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class MemoryMonitor
+ *
+ *---------------------------------------------------------------------*/
+
+package dev.flang.lsp.server.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryType;
+
+import javax.management.NotificationEmitter;
+
+/**
+ * watches the usage of the heap memory pools and notifies
+ * when a pool gets close to its maximum size.
+ */
+public class MemoryMonitor
+{
+  /**
+   * fraction of the maximum size of a memory pool at which we start evicting caches
+   */
+  static final double USAGE_THRESHOLD = 0.8;
+
+  private static boolean started = false;
+
+  /**
+   * @param onMemoryPressure run on the executor whenever a heap memory pool exceeds USAGE_THRESHOLD
+   */
+  public static synchronized void Start(Runnable onMemoryPressure)
+  {
+    if (started)
+      {
+        return;
+      }
+    started = true;
+    for(var pool : ManagementFactory.getMemoryPoolMXBeans())
+      {
+        var max = pool.getUsage().getMax();
+        if (pool.getType() != MemoryType.HEAP || max <= 0)
+          {
+            continue;
+          }
+        var threshold = (long) (max * USAGE_THRESHOLD);
+        if (pool.isUsageThresholdSupported())
+          {
+            pool.setUsageThreshold(threshold);
+          }
+        if (pool.isCollectionUsageThresholdSupported())
+          {
+            pool.setCollectionUsageThreshold(threshold);
+          }
+      }
+    var emitter = (NotificationEmitter) ManagementFactory.getMemoryMXBean();
+    emitter.addNotificationListener((notification, handback) -> {
+      var type = notification.getType();
+      if (type.equals(MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED)
+        || type.equals(MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED))
+        {
+          Log.message("memory usage above threshold, evicting caches");
+          // evict between requests, not while one is using the records
+          Concurrency.RunOnExecutor(onMemoryPressure);
+        }
+    }, null, null);
+  }
+
+}
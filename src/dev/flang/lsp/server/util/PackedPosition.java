@@ -0,0 +1,75 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class PackedPosition
+ *
+ *---------------------------------------------------------------------*/
+
+package dev.flang.lsp.server.util;
+
+import org.eclipse.lsp4j.Position;
+
+import dev.flang.util.SourcePosition;
+
+/**
+ * a source position packed into a primitive long: line << 32 | column.
+ * packed positions of the same file compare like the positions themselves.
+ *
+ * Packed from a SourcePosition, line and column are one based and refer to
+ * the text that was parsed. Packed from an lsp4j Position, they are zero
+ * based and refer to the current text. Queries compare packed positions,
+ * lsp4j objects are only created at the protocol boundary.
+ */
+public class PackedPosition
+{
+
+  public static long Pack(int line, int column)
+  {
+    return ((long) line << 32) | (column & 0xFFFFFFFFL);
+  }
+
+  public static long Pack(SourcePosition sourcePosition)
+  {
+    return Pack(sourcePosition._line, sourcePosition._column);
+  }
+
+  public static long Pack(Position position)
+  {
+    return Pack(position.getLine(), position.getCharacter());
+  }
+
+  public static Position ToPosition(long packedPosition)
+  {
+    return new Position(Line(packedPosition), Column(packedPosition));
+  }
+
+  public static int Line(long packedPosition)
+  {
+    return (int) (packedPosition >>> 32);
+  }
+
+  public static int Column(long packedPosition)
+  {
+    return (int) packedPosition;
+  }
+
+}
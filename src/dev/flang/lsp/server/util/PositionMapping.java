@@ -0,0 +1,293 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class PositionMapping
+ *
+ *---------------------------------------------------------------------*/
+
+package dev.flang.lsp.server.util;
+
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.lsp4j.Position;
+
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.records.TextDelta;
+import dev.flang.util.SourcePosition;
+
+/**
+ * records the changes between the versions of a source text so that
+ * positions can be translated between a former version, e.g. the one a
+ * parser cache record was created from, and the current version.
+ */
+public class PositionMapping
+{
+  static final int MAX_VERSIONS = 100;
+
+  /**
+   * the known versions of a source text, oldest first.
+   * deltas.get(i) describes the change from texts.get(i) to texts.get(i + 1).
+   * texts are referenced weakly, we only need them as long as someone,
+   * e.g. a parser cache record, still refers to them.
+   */
+  private static class History
+  {
+    private final ArrayList<WeakReference<String>> texts = new ArrayList<>();
+    private final ArrayList<TextDelta> deltas = new ArrayList<>();
+
+    synchronized void add(String oldText, String newText)
+    {
+      if (texts.isEmpty() || texts.get(texts.size() - 1).get() != oldText)
+        {
+          texts.clear();
+          deltas.clear();
+          texts.add(new WeakReference<>(newText));
+          return;
+        }
+      deltas.add(TextDelta.Of(oldText, newText));
+      texts.add(new WeakReference<>(newText));
+      if (texts.size() > MAX_VERSIONS)
+        {
+          texts.remove(0);
+          deltas.remove(0);
+        }
+    }
+
+    /**
+     * @return index of text, -1 if text is not known
+     */
+    private int indexOf(String text)
+    {
+      if (text == null)
+        {
+          return -1;
+        }
+      for(int i = texts.size() - 1; i >= 0; i--)
+        {
+          if (texts.get(i).get() == text)
+            {
+              return i;
+            }
+        }
+      return -1;
+    }
+
+    /**
+     * @return the version before the most recent one, empty if not known
+     */
+    synchronized Optional<String> previous()
+    {
+      if (texts.size() < 2)
+        {
+          return Optional.empty();
+        }
+      return Optional.ofNullable(texts.get(texts.size() - 2).get());
+    }
+
+    synchronized boolean contains(String text)
+    {
+      return indexOf(text) >= 0;
+    }
+
+    synchronized Position toCurrent(String text, Position position)
+    {
+      var index = indexOf(text);
+      if (index < 0)
+        {
+          return position;
+        }
+      for(int i = index; i < deltas.size(); i++)
+        {
+          position = deltas.get(i).MapForward(position);
+        }
+      return position;
+    }
+
+    synchronized Position fromCurrent(String text, Position position)
+    {
+      var index = indexOf(text);
+      if (index < 0)
+        {
+          return position;
+        }
+      for(int i = deltas.size() - 1; i >= index; i--)
+        {
+          position = deltas.get(i).MapBackward(position);
+        }
+      return position;
+    }
+  }
+
+  private static final Map<URI, History> histories = new ConcurrentHashMap<>();
+
+  /**
+   * record that the text of uri changed from oldText to newText
+   * @param uri
+   * @param oldText may be null if there was no text before.
+   * @param newText
+   */
+  public static void Record(URI uri, String oldText, String newText)
+  {
+    histories.computeIfAbsent(uri, u -> new History()).add(oldText, newText);
+  }
+
+  /**
+   * forget the history of uri, e.g. when it has been closed
+   * @param uri
+   */
+  public static void Forget(URI uri)
+  {
+    histories.remove(uri);
+  }
+
+  /**
+   * @param uri
+   * @return the version of the text of uri that preceded the current one, if still known
+   */
+  public static Optional<String> PreviousVersion(URI uri)
+  {
+    var history = histories.get(uri);
+    return history == null ? Optional.empty(): history.previous();
+  }
+
+  /**
+   * @param uri
+   * @param text
+   * @return true iff positions in text can be mapped to the current text of uri
+   */
+  public static boolean CanMap(URI uri, String text)
+  {
+    var history = histories.get(uri);
+    return history != null && history.contains(text);
+  }
+
+  /**
+   * @param uri
+   * @param text
+   * @return true iff text equals the current text of uri, e.g. after an undo
+   * the parser cache returns a record of an equal text that is a different
+   * instance, mapping it through the history would shift positions.
+   */
+  private static boolean IsCurrent(URI uri, String text)
+  {
+    var current = SourceText.getText(uri);
+    return text == current || text.equals(current);
+  }
+
+  /**
+   * @param uri
+   * @param text a former version of the text of uri
+   * @param position position in text
+   * @return the corresponding position in the current text of uri
+   */
+  public static Position ToCurrent(URI uri, String text, Position position)
+  {
+    var history = histories.get(uri);
+    if (history == null || IsCurrent(uri, text))
+      {
+        return position;
+      }
+    return history.toCurrent(text, position);
+  }
+
+  /**
+   * @param uri
+   * @param text a former version of the text of uri
+   * @param position position in the current text of uri
+   * @return the corresponding position in text
+   */
+  public static Position FromCurrent(URI uri, String text, Position position)
+  {
+    var history = histories.get(uri);
+    if (history == null || IsCurrent(uri, text))
+      {
+        return position;
+      }
+    return history.fromCurrent(text, position);
+  }
+
+  /**
+   * @param sourcePosition
+   * @param position the position of sourcePosition in the text it was parsed from
+   * @return position in the current text
+   */
+  static Position ToCurrent(SourcePosition sourcePosition, Position position)
+  {
+    var text = FuzionParser.SourceTextOf(sourcePosition);
+    if (text == null)
+      {
+        return position;
+      }
+    return ToCurrent(FuzionParser.getUri(sourcePosition), text, position);
+  }
+
+  /**
+   * @param sourcePosition
+   * @return zero based packed position of sourcePosition in the current text
+   */
+  static long ToCurrentPacked(SourcePosition sourcePosition)
+  {
+    return ToCurrentPacked(sourcePosition, PackedPosition.Pack(sourcePosition));
+  }
+
+  /**
+   * @param reference a source position in the text position refers to
+   * @param position one based packed position in the text reference was parsed from
+   * @return zero based packed position in the current text
+   */
+  static long ToCurrentPacked(SourcePosition reference, long position)
+  {
+    var packed = PackedPosition.Pack(PackedPosition.Line(position) - 1, PackedPosition.Column(position) - 1);
+    var text = FuzionParser.SourceTextOf(reference);
+    if (text == null)
+      {
+        return packed;
+      }
+    var uri = FuzionParser.getUri(reference);
+    if (IsCurrent(uri, text))
+      {
+        return packed;
+      }
+    return PackedPosition.Pack(ToCurrent(uri, text, PackedPosition.ToPosition(packed)));
+  }
+
+  /**
+   * @param sourcePosition
+   * @param position position in the current text
+   * @return position in the text sourcePosition was parsed from
+   */
+  static Position FromCurrent(SourcePosition sourcePosition, Position position)
+  {
+    var text = FuzionParser.SourceTextOf(sourcePosition);
+    if (text == null)
+      {
+        return position;
+      }
+    return FromCurrent(FuzionParser.getUri(sourcePosition), text, position);
+  }
+
+}
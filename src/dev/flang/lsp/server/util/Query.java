@@ -0,0 +1,161 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class Query
+ *
+ *---------------------------------------------------------------------*/
+
+package dev.flang.lsp.server.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import dev.flang.ast.AbstractFeature;
+
+/**
+ * a memoized query, inspired by salsa.
+ *
+ * The result of compute is remembered per key together with the inputs and
+ * queries that were read while computing it. When asked again in a later
+ * revision the result is only recomputed if one of these dependencies changed.
+ * If the recomputed result equals the old one, queries depending on this
+ * one do not need to be recomputed.
+ *
+ * NOTE: facts that depend on nothing but the parsed features themselves,
+ * like member tables or labels, are kept in a FeatureCache instead.
+ */
+public class Query<K, V> extends QueryNode<K>
+{
+  private static class Memo<V>
+  {
+    private final V value;
+    private final List<Dependency> dependencies;
+    private final long changedAt;
+    private volatile long verifiedAt;
+
+    private Memo(V value, List<Dependency> dependencies, long changedAt, long verifiedAt)
+    {
+      this.value = value;
+      this.dependencies = dependencies;
+      this.changedAt = changedAt;
+      this.verifiedAt = verifiedAt;
+    }
+  }
+
+  /**
+   * all queries that have been created, needed for eviction.
+   */
+  private static final List<Query<?, ?>> queries = Collections.synchronizedList(new ArrayList<>());
+
+  static final int MAX_ENTRIES = 1000;
+
+  private final Function<K, V> compute;
+
+  // LRU-Cache holding the most recently used results of this query
+  private final Map<K, Memo<V>> memos = Collections.synchronizedMap(
+    new LinkedHashMap<K, Memo<V>>(MAX_ENTRIES + 1, .75F, true) {
+      public boolean removeEldestEntry(Map.Entry<K, Memo<V>> eldest)
+      {
+        return size() > MAX_ENTRIES;
+      }
+    });
+
+  public Query(Function<K, V> compute)
+  {
+    this.compute = compute;
+    queries.add(this);
+  }
+
+  /**
+   * NOTE: compute is not run while holding a lock, so it may itself use
+   * other queries.
+   * @param key
+   * @return result of compute for key, possibly memoized
+   */
+  public V get(K key)
+  {
+    var result = upToDate(key).value;
+    read(key);
+    return result;
+  }
+
+  private Memo<V> upToDate(K key)
+  {
+    var revision = Revision();
+    var memo = memos.get(key);
+    if (memo != null
+      && (memo.verifiedAt == revision || memo.dependencies.stream().noneMatch(d -> d.changedAfter(memo.verifiedAt))))
+      {
+        memo.verifiedAt = revision;
+        return memo;
+      }
+    var dependencies = Collections.synchronizedList(new ArrayList<Dependency>());
+    V value;
+    Push(dependencies);
+    try
+      {
+        value = compute.apply(key);
+      }
+    finally
+      {
+        Pop();
+      }
+    var changedAt = memo != null && Objects.equals(memo.value, value) ? memo.changedAt: revision;
+    var result = new Memo<>(value, List.copyOf(dependencies), changedAt, revision);
+    memos.put(key, result);
+    return result;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  boolean changedAfter(Object key, long revision)
+  {
+    return upToDate((K) key).changedAt > revision;
+  }
+
+  private void evict(AbstractFeature universe)
+  {
+    synchronized (memos)
+      {
+        memos.keySet().removeIf(key -> key instanceof AbstractFeature f
+          && FeatureTool.universe(f).map(u -> u == universe).orElse(false));
+      }
+  }
+
+  /**
+   * drop all memoized results for features belonging to universe
+   * @param universe
+   */
+  static void Evict(AbstractFeature universe)
+  {
+    synchronized (queries)
+      {
+        queries.forEach(q -> q.evict(universe));
+      }
+  }
+
+}
@@ -29,12 +29,15 @@ package dev.flang.lsp.server.util;
 import java.net.URI;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.TextDocumentPositionParams;
 
 import dev.flang.ast.AbstractFeature;
@@ -48,27 +51,28 @@ import dev.flang.util.SourcePosition;
 
 public class QueryAST
 {
-  private static boolean PositionIsAfterOrAtCursor(TextDocumentPositionParams params, SourcePosition sourcePosition)
+  private static boolean PositionIsAfterOrAtCursor(long cursor, SourcePosition sourcePosition)
   {
-    return LSP4jUtils.ComparePosition(LSP4jUtils.getPosition(params), Bridge.ToPosition(sourcePosition)) <= 0;
+    return cursor <= Bridge.ToPackedPosition(sourcePosition);
   }
 
-  private static boolean PositionIsBeforeCursor(TextDocumentPositionParams params, SourcePosition sourcePosition)
+  private static boolean PositionIsBeforeCursor(long cursor, SourcePosition sourcePosition)
   {
-    return LSP4jUtils.ComparePosition(LSP4jUtils.getPosition(params), Bridge.ToPosition(sourcePosition)) > 0;
+    return cursor > Bridge.ToPackedPosition(sourcePosition);
   }
 
   public static Optional<AbstractFeature> CalledFeature(TextDocumentPositionParams params)
   {
     var baseFeature = FuzionParser.MainOrUniverse(params.getTextDocument());
+    var cursor = PackedPosition.Pack(params.getPosition());
     return ASTWalker.Traverse(baseFeature)
-      .filter(ASTItem.IsItemInFile(LSP4jUtils.getUri(params)))
       .filter(entry -> entry.getKey() instanceof Call)
+      .filter(ASTItem.IsItemInFile(LSP4jUtils.getUri(params)))
       .map(entry -> new SimpleEntry<Call, AbstractFeature>((Call) entry.getKey(), entry.getValue()))
-      .filter(entry -> PositionIsAfterOrAtCursor(params, FuzionParser.endOfFeature(entry.getValue())))
-      .filter(entry -> PositionIsBeforeCursor(params, entry.getKey().pos()))
+      .filter(entry -> PositionIsAfterOrAtCursor(cursor, FuzionParser.endOfFeature(entry.getValue())))
+      .filter(entry -> PositionIsBeforeCursor(cursor, entry.getKey().pos()))
       .map(entry -> entry.getKey())
-      .filter(c -> LSP4jUtils.ComparePosition(Bridge.ToPosition(CallTool.endOfCall(c)), params.getPosition()) <= 0)
+      .filter(c -> Bridge.ToPackedPosition(CallTool.endOfCall(c)) <= cursor)
       .sorted(CompareBySourcePosition.reversed())
       .filter(c -> CalledFeature(c).isPresent())
       .map(c -> CalledFeature(c).get())
@@ -109,15 +113,58 @@ public class QueryAST
   public static Stream<Call> CallsTo(AbstractFeature feature)
   {
     return FeatureTool.universe(feature)
-      .map(universe -> {
-        return AllOf(universe, Call.class)
-          .filter(call -> CalledFeature(call)
-            .map(f -> f.equals(feature))
-            .orElse(false));
-      })
+      .map(universe -> CallsByCalledFeature.get(universe, u -> CallsByCalledFeature(u))
+        .getOrDefault(feature, List.of())
+        .stream())
       .orElse(Stream.empty());
   }
 
+  /**
+   * calls to a feature that is declared outside of uri, e.g. in the standard library,
+   * in the other files of the workspace. These are taken from the CallGraph.
+   * Workspace files that have not been parsed yet are parsed first, unless
+   * their IdentifierFilters show that they can not contain the name of feature.
+   * Edges of files whose current text does not contain the name anymore are skipped.
+   *
+   * @param uri the file feature has been looked up in
+   * @param feature
+   * @return the locations of the calls
+   */
+  public static Stream<Location> CallsToInOtherFiles(URI uri, AbstractFeature feature)
+  {
+    if (FuzionParser.getUri(feature.pos()).equals(uri))
+      {
+        return Stream.empty();
+      }
+    var name = feature.featureName().baseName();
+    // parsing a file adds its calls to the call graph
+    IO.WorkspaceFiles()
+      .stream()
+      .filter(other -> !other.equals(uri)
+        && !CallGraph.IsIndexed(other)
+        && IdentifierFilters.MightContain(other, name))
+      .forEach(other -> FuzionParser.MainOrUniverse(other));
+    return CallGraph.Incoming(CallGraph.Key(feature))
+      .values()
+      .stream()
+      .flatMap(edges -> edges.stream())
+      .filter(edge -> !edge.uri().equals(uri) && IdentifierFilters.MightContain(edge.uri(), name))
+      .map(edge -> new Location(edge.uri().toString(), edge.range()));
+  }
+
+  /**
+   * all calls in universe grouped by the feature they call,
+   * computed once per universe.
+   */
+  private static final FeatureCache<Map<AbstractFeature, List<Call>>> CallsByCalledFeature = new FeatureCache<>();
+
+  private static Map<AbstractFeature, List<Call>> CallsByCalledFeature(AbstractFeature universe)
+  {
+    return AllOf(universe, Call.class)
+      .filter(call -> CalledFeature(call).isPresent())
+      .collect(Collectors.groupingBy(call -> call.calledFeature()));
+  }
+
   private static Stream<Object> CallsAndFeaturesAt(TextDocumentPositionParams params)
   {
     return ASTItemsBeforeOrAtCursor(params)
@@ -152,12 +199,7 @@ public class QueryAST
       .map(x -> {
         return x.featureOfType();
       })
-      .map(feature -> {
-        var featuresViaInheritance =
-          feature.inherits().stream().flatMap(c -> FuzionParser.DeclaredFeatures(c.calledFeature()));
-        return Stream.concat(FuzionParser
-          .DeclaredFeatures(feature), featuresViaInheritance);
-      })
+      .map(feature -> FuzionParser.DeclaredFeaturesOfFeatureAndParents(feature))
       .orElse(Stream.empty());
   }
 
@@ -178,68 +220,57 @@ public class QueryAST
   private static Stream<Object> ASTItemsBeforeOrAtCursor(TextDocumentPositionParams params)
   {
     var baseFeature = FuzionParser.MainOrUniverse(params.getTextDocument());
+    var cursor = PackedPosition.Pack(params.getPosition());
     var astItems = ASTWalker.Traverse(baseFeature)
-      .filter(IsItemNotBuiltIn(params))
+      .filter(IsItemNotBuiltIn())
       .filter(ASTItem.IsItemInFile(LSP4jUtils.getUri(params)))
-      .filter(IsItemOnSameLineAsCursor(params))
-      .filter(IsItemInScope(params))
+      .filter(IsItemOnSameLineAsCursor(cursor))
+      .filter(IsItemInScope(cursor))
       .map(entry -> entry.getKey())
       .sorted(CompareBySourcePosition.reversed());
 
     return astItems;
   }
 
-  private static Predicate<? super Entry<Object, AbstractFeature>> IsItemNotBuiltIn(TextDocumentPositionParams params)
+  private static Predicate<? super Entry<Object, AbstractFeature>> IsItemNotBuiltIn()
   {
     return (entry) -> {
-      var astItem = entry.getKey();
-      var sourcePositionOption = ASTItem.sourcePosition(astItem);
-      if (sourcePositionOption.isEmpty())
-        {
-          return false;
-        }
-      return !sourcePositionOption.get().isBuiltIn();
+      var sourcePosition = ASTItem.sourcePositionOrNull(entry.getKey());
+      return sourcePosition != null && !sourcePosition.isBuiltIn();
     };
   }
 
-  private static Predicate<? super Entry<Object, AbstractFeature>> IsItemOnSameLineAsCursor(
-    TextDocumentPositionParams params)
+  private static Predicate<? super Entry<Object, AbstractFeature>> IsItemOnSameLineAsCursor(long cursor)
   {
     return (entry) -> {
-      var astItem = entry.getKey();
-      var cursorPosition = LSP4jUtils.getPosition(params);
-      var sourcePositionOption = ASTItem.sourcePosition(astItem);
-      if (sourcePositionOption.isEmpty())
+      var sourcePosition = ASTItem.sourcePositionOrNull(entry.getKey());
+      if (sourcePosition == null)
         {
           return false;
         }
-      return cursorPosition.getLine() == Bridge.ToPosition(sourcePositionOption.get()).getLine();
+      return PackedPosition.Line(cursor) == PackedPosition.Line(Bridge.ToPackedPosition(sourcePosition));
     };
   }
 
   /**
    * tries figuring out if an item is "reachable" from a given textdocumentposition
-   * @param params
+   * @param cursor packed position of the cursor
    * @return
    */
-  private static Predicate<? super Entry<Object, AbstractFeature>> IsItemInScope(TextDocumentPositionParams params)
+  private static Predicate<? super Entry<Object, AbstractFeature>> IsItemInScope(long cursor)
   {
     return (entry) -> {
-      var astItem = entry.getKey();
       var outer = entry.getValue();
-      var cursorPosition = LSP4jUtils.getPosition(params);
 
-      var sourcePositionOption = ASTItem.sourcePosition(astItem);
-      if (sourcePositionOption.isEmpty())
+      var sourcePosition = ASTItem.sourcePositionOrNull(entry.getKey());
+      if (sourcePosition == null)
         {
           return false;
         }
 
+      boolean ItemPositionIsBeforeOrAtCursorPosition = cursor >= Bridge.ToPackedPosition(sourcePosition);
       boolean BuiltInOrEndAfterCursor = outer.pos().isBuiltIn()
-        || LSP4jUtils.ComparePosition(cursorPosition,
-          Bridge.ToPosition(FuzionParser.endOfFeature(outer))) <= 0;
-      boolean ItemPositionIsBeforeOrAtCursorPosition =
-        LSP4jUtils.ComparePosition(cursorPosition, Bridge.ToPosition(sourcePositionOption.get())) >= 0;
+        || cursor <= Bridge.ToPackedPosition(FuzionParser.endOfFeature(outer));
 
       return ItemPositionIsBeforeOrAtCursorPosition && BuiltInOrEndAfterCursor;
     };
@@ -248,21 +279,21 @@ public class QueryAST
 
   private static Comparator<? super Object> CompareBySourcePosition =
     Comparator.comparing(obj -> obj, (obj1, obj2) -> {
-      var sourcePositionOption1 = ASTItem.sourcePosition(obj1);
-      var sourcePositionOption2 = ASTItem.sourcePosition(obj2);
-      if (sourcePositionOption1.isEmpty() || sourcePositionOption2.isEmpty())
+      var sourcePosition1 = ASTItem.sourcePositionOrNull(obj1);
+      var sourcePosition2 = ASTItem.sourcePositionOrNull(obj2);
+      if (sourcePosition1 == null || sourcePosition2 == null)
         {
-          if (sourcePositionOption1.isEmpty() && sourcePositionOption2.isEmpty())
+          if (sourcePosition1 == null && sourcePosition2 == null)
             {
               return 0;
             }
-          if (sourcePositionOption1.isEmpty())
+          if (sourcePosition1 == null)
             {
               return -1;
             }
           return 1;
         }
-      return sourcePositionOption1.get().compareTo(sourcePositionOption2.get());
+      return sourcePosition1.compareTo(sourcePosition2);
     });
 
   private static Comparator<? super Call> CompareByEndOfCall =
@@ -295,6 +326,23 @@ public class QueryAST
   }
 
 
+  /**
+   * like FeatureAt, but looks the feature up in the occurrence index of the snapshot
+   * if there is a declaration of or a call to a feature at the cursor.
+   * @param params
+   * @return the feature declared or called at the cursor, see FeatureAt if there is none in the index
+   */
+  public static Optional<AbstractFeature> OccurrenceAt(TextDocumentPositionParams params)
+  {
+    var main = FuzionParser.MainOrUniverse(LSP4jUtils.getUri(params));
+    return FeatureTool.OccurrenceIndexOf(main)
+      .flatMap(occurrenceIndex -> {
+        var at = occurrenceIndex.at(PackedPosition.Pack(Bridge.ToSourcePosition(main.pos(), params.getPosition())));
+        return at < 0 ? Optional.<AbstractFeature>empty(): Optional.of(occurrenceIndex.features()[at]);
+      })
+      .or(() -> FeatureAt(params));
+  }
+
   /**
    * tries to find the closest feature at given
    * position that is declared, called or used by a type
@@ -342,10 +390,10 @@ public class QueryAST
 
   private static boolean IsAtDefinitionOfField(TextDocumentPositionParams params, AbstractFeature f)
   {
-    var start = Bridge.ToPosition(f.pos());
-    var end = new Position(start.getLine(), start.getCharacter() + f.featureName().baseName().length());
-    return LSP4jUtils.ComparePosition(start, params.getPosition()) <= 0
-      && LSP4jUtils.ComparePosition(end, params.getPosition()) >= 0;
+    var start = Bridge.ToPackedPosition(f.pos());
+    var end = start + f.featureName().baseName().length();
+    var cursor = PackedPosition.Pack(params.getPosition());
+    return start <= cursor && cursor <= end;
   }
 
   /**
@@ -354,16 +402,14 @@ public class QueryAST
    */
   public static Optional<AbstractFeature> InFeature(TextDocumentPositionParams params)
   {
+    var cursor = PackedPosition.Pack(params.getPosition());
     return DeclaredFeaturesRecursive(LSP4jUtils.getUri(params))
       .filter(f -> {
-        var cursorPosition = LSP4jUtils.getPosition(params);
-        var startOfFeature = Bridge.ToPosition(f.pos());
-        var endOfFeature = Bridge.ToPosition(FuzionParser.endOfFeature(f));
-        return LSP4jUtils.ComparePosition(cursorPosition, endOfFeature) <= 0 &&
-          LSP4jUtils.ComparePosition(cursorPosition, startOfFeature) > 0;
-      })
-      .filter(f -> {
-        return f.pos()._column < params.getPosition().getCharacter() + 1;
+        var startOfFeature = Bridge.ToPackedPosition(f.pos());
+        var endOfFeature = Bridge.ToPackedPosition(FuzionParser.endOfFeature(f));
+        return cursor <= endOfFeature
+          && cursor > startOfFeature
+          && PackedPosition.Column(startOfFeature) < PackedPosition.Column(cursor);
       })
       .sorted(CompareBySourcePosition.reversed())
       .findFirst();
@@ -0,0 +1,104 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class QueryNode
+ *
+ *---------------------------------------------------------------------*/
+
+package dev.flang.lsp.server.util;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * common base of inputs and queries.
+ *
+ * There is one global revision that is incremented whenever an input changes.
+ * While a query is being computed, every input or query it reads is recorded
+ * as one of its dependencies. A memoized result can be reused in a later
+ * revision if none of its dependencies changed after it was last verified.
+ */
+public abstract class QueryNode<K>
+{
+
+  /**
+   * a node and the key that was read from it.
+   */
+  record Dependency(QueryNode<?> node, Object key)
+  {
+    boolean changedAfter(long revision)
+    {
+      return node.changedAfter(key, revision);
+    }
+  }
+
+  private static final AtomicLong revision = new AtomicLong(1);
+
+  /**
+   * the dependencies of the queries that are currently being computed by this thread,
+   * innermost first.
+   */
+  private static final ThreadLocal<ArrayDeque<List<Dependency>>> active =
+    ThreadLocal.withInitial(() -> new ArrayDeque<>());
+
+  static long Revision()
+  {
+    return revision.get();
+  }
+
+  static long NewRevision()
+  {
+    return revision.incrementAndGet();
+  }
+
+  static void Push(List<Dependency> dependencies)
+  {
+    active.get().push(dependencies);
+  }
+
+  static void Pop()
+  {
+    active.get().pop();
+  }
+
+  /**
+   * record that the query currently being computed depends on key of this node.
+   * @param key
+   */
+  protected void read(K key)
+  {
+    var dependencies = active.get().peek();
+    if (dependencies != null)
+      {
+        dependencies.add(new Dependency(this, key));
+      }
+  }
+
+  /**
+   * @param key
+   * @param revision
+   * @return true iff the value for key may have changed after revision
+   */
+  abstract boolean changedAfter(Object key, long revision);
+
+}
@@ -0,0 +1,276 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class SymbolIndex
+ *
+ *---------------------------------------------------------------------*/
+
+
+package dev.flang.lsp.server.util;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolKind;
+
+import dev.flang.ast.AbstractFeature;
+import dev.flang.lsp.server.records.FeatureTable;
+import dev.flang.lsp.server.records.SymbolIndexEntry;
+
+/**
+ * index of the features declared in the workspace and the standard library.
+ * Names are split into trigrams, every trigram maps to the ids of the entries
+ * whose name contains it. A query only looks at the entries sharing its trigrams.
+ *
+ * Entries of a uri are replaced whenever the uri is parsed again. Ids of replaced
+ * entries are left as null in entries and in the posting lists until the next compaction.
+ */
+public class SymbolIndex
+{
+
+  private static final ArrayList<SymbolIndexEntry> entries = new ArrayList<>();
+
+  private static final Map<URI, int[]> uri2Ids = new HashMap<>();
+
+  private static final Map<Long, ArrayList<Integer>> trigram2Ids = new HashMap<>();
+
+  private static int removed = 0;
+
+  /**
+   * replace the entries of uri by features
+   * @param uri
+   * @param features
+   */
+  public static void Index(URI uri, Stream<AbstractFeature> features)
+  {
+    Index(uri, features
+      .filter(f -> !f.isUniverse() && !FeatureTool.IsAnonymousInnerFeature(f))
+      .map(f -> ToEntry(uri, f))
+      .collect(Collectors.toList()));
+  }
+
+  /**
+   * replace the entries of uri by newEntries
+   * @param uri
+   * @param newEntries
+   */
+  public static void Index(URI uri, List<SymbolIndexEntry> newEntries)
+  {
+    synchronized (entries)
+      {
+        RemoveEntries(uri);
+        var ids = new int[newEntries.size()];
+        for(int i = 0; i < ids.length; i++)
+          {
+            ids[i] = Add(newEntries.get(i));
+          }
+        uri2Ids.put(uri, ids);
+        if (removed > entries.size() / 2)
+          {
+            Compact();
+          }
+      }
+  }
+
+  /**
+   * remove all entries of uri, e.g. when it has been deleted
+   * @param uri
+   */
+  public static void Remove(URI uri)
+  {
+    synchronized (entries)
+      {
+        RemoveEntries(uri);
+        uri2Ids.remove(uri);
+      }
+  }
+
+  /**
+   * @param uri
+   * @return true iff entries for uri have been indexed
+   */
+  public static boolean IsIndexed(URI uri)
+  {
+    synchronized (entries)
+      {
+        return uri2Ids.containsKey(uri);
+      }
+  }
+
+  /**
+   * find the entries whose name contains query. If the query has at least
+   * three characters, names sharing two thirds of its trigrams are found as well,
+   * ranked after the exact matches. Shorter queries match names containing
+   * the characters of the query in order.
+   *
+   * @param query
+   * @param limit maximum number of results
+   * @return
+   */
+  public static List<SymbolIndexEntry> Find(String query, int limit)
+  {
+    var lowerCaseQuery = query.toLowerCase();
+    synchronized (entries)
+      {
+        var hits = new HashMap<Integer, Integer>();
+        var trigrams = Trigrams(lowerCaseQuery).distinct().toArray(Long[]::new);
+        if (trigrams.length == 0)
+          {
+            IntStream
+              .range(0, entries.size())
+              .filter(id -> entries.get(id) != null
+                && IsSubsequence(lowerCaseQuery, entries.get(id).name().toLowerCase()))
+              .forEach(id -> hits.put(id, 0));
+          }
+        else
+          {
+            for(var trigram : trigrams)
+              {
+                var ids = trigram2Ids.get(trigram);
+                if (ids != null)
+                  {
+                    for(var id : ids)
+                      {
+                        hits.merge(id, 1, Integer::sum);
+                      }
+                  }
+              }
+          }
+        var required = trigrams.length - trigrams.length / 3;
+        return hits
+          .entrySet()
+          .stream()
+          .filter(hit -> hit.getValue() >= required && entries.get(hit.getKey()) != null)
+          .sorted(Comparator
+            .<Map.Entry<Integer, Integer>>comparingInt(
+              hit -> entries.get(hit.getKey()).name().toLowerCase().contains(lowerCaseQuery) ? 0: 1)
+            .thenComparingInt(hit -> -hit.getValue())
+            .thenComparingInt(hit -> entries.get(hit.getKey()).name().length()))
+          .limit(limit)
+          .map(hit -> entries.get(hit.getKey()))
+          .collect(Collectors.toList());
+      }
+  }
+
+  static SymbolIndexEntry ToEntry(URI uri, AbstractFeature feature)
+  {
+    var position = Bridge.ToPosition(feature.pos());
+    var outer = feature.outer();
+    var containerName = outer == null || outer.isUniverse() ? null: outer.qualifiedName();
+    return new SymbolIndexEntry(uri, feature.featureName().baseName(), containerName,
+      SymbolKind(FeatureTool.Kind(feature)), new Range(position, position));
+  }
+
+  static SymbolKind SymbolKind(byte kind)
+  {
+    switch (kind)
+      {
+        case FeatureTable.KIND_ROUTINE :
+          return SymbolKind.Function;
+        case FeatureTable.KIND_FIELD :
+          return SymbolKind.Field;
+        case FeatureTable.KIND_ARGUMENT :
+          return SymbolKind.Variable;
+        default:
+          return SymbolKind.Class;
+      }
+  }
+
+  private static int Add(SymbolIndexEntry entry)
+  {
+    var id = entries.size();
+    entries.add(entry);
+    Trigrams(entry.name().toLowerCase())
+      .distinct()
+      .forEach(trigram -> trigram2Ids.computeIfAbsent(trigram, t -> new ArrayList<>()).add(id));
+    return id;
+  }
+
+  private static void RemoveEntries(URI uri)
+  {
+    var ids = uri2Ids.get(uri);
+    if (ids != null)
+      {
+        for(var id : ids)
+          {
+            entries.set(id, null);
+          }
+        removed += ids.length;
+      }
+  }
+
+  /**
+   * rebuild the index without the entries that have been removed
+   */
+  private static void Compact()
+  {
+    var uris = new ArrayList<>(uri2Ids.entrySet());
+    var oldEntries = new ArrayList<>(entries);
+    entries.clear();
+    trigram2Ids.clear();
+    uri2Ids.clear();
+    removed = 0;
+    for(var uriIds : uris)
+      {
+        var ids = uriIds.getValue();
+        var newIds = new int[ids.length];
+        for(int i = 0; i < ids.length; i++)
+          {
+            newIds[i] = Add(oldEntries.get(ids[i]));
+          }
+        uri2Ids.put(uriIds.getKey(), newIds);
+      }
+  }
+
+  /**
+   * @param str
+   * @return the trigrams of str, three chars packed into a long
+   */
+  static Stream<Long> Trigrams(String str)
+  {
+    return IntStream
+      .range(0, Math.max(str.length() - 2, 0))
+      .mapToObj(i -> ((long) str.charAt(i) << 32) | ((long) str.charAt(i + 1) << 16) | str.charAt(i + 2));
+  }
+
+  private static boolean IsSubsequence(String query, String str)
+  {
+    var i = 0;
+    for(int j = 0; i < query.length() && j < str.length(); j++)
+      {
+        if (query.charAt(i) == str.charAt(j))
+          {
+            i++;
+          }
+      }
+    return i == query.length();
+  }
+
+}
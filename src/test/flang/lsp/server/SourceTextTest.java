@@ -26,6 +26,9 @@ Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
 
 package test.flang.lsp.server;
 
+import java.io.IOException;
+import java.nio.file.Files;
+
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
 import org.junit.jupiter.api.Test;
@@ -58,6 +61,23 @@ class SourceTextTest extends BaseTest
   }
 
 
+  @Test
+  public void TextReadFromDiskIsCached() throws IOException
+  {
+    var path = Files.createTempFile("sourceText", ".fz");
+    path.toFile().deleteOnExit();
+    Files.writeString(path, "myFeat is");
+    var uri = path.toUri();
+
+    var text = SourceText.getText(uri);
+    assertEquals("myFeat is", text);
+    assertSame(text, SourceText.getText(uri));
+
+    Files.writeString(path, "myOtherFeat is");
+    SourceText.close(uri);
+    assertEquals("myOtherFeat is", SourceText.getText(uri));
+  }
+
   @Test
   public void SourceText()
   {
@@ -45,4 +45,11 @@ public class UriTest extends BaseTest
     assertTrue(Path.of(new URI("file:/c:/temp.fz")).toUri().equals(Util.toURI("file:///c%3A/temp.fz")));
   }
 
+  @Test
+  public void Interned() throws URISyntaxException
+  {
+    assertSame(Util.toURI("file:///c%3A/temp.fz"), Util.toURI("file:/c:/temp.fz"));
+    assertSame(Util.toURI("file:/c:/temp.fz"), Util.Intern(new URI("file:/c:/temp.fz")));
+  }
+
 }
@@ -0,0 +1,84 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class CallHierarchyTest
+ *
+ *---------------------------------------------------------------------*/
+
+
+package test.flang.lsp.server.feature;
+
+import org.eclipse.lsp4j.CallHierarchyIncomingCallsParams;
+import org.eclipse.lsp4j.CallHierarchyOutgoingCallsParams;
+import org.eclipse.lsp4j.CallHierarchyPrepareParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.junit.jupiter.api.Test;
+
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.feature.CallHierarchy;
+import test.flang.lsp.server.BaseTest;
+
+public class CallHierarchyTest extends BaseTest
+{
+  @Test
+  public void IncomingAndOutgoingCalls()
+  {
+    SourceText.setText(uri1, ManOrBoy);
+    var items = CallHierarchy.getCallHierarchyItems(
+      new CallHierarchyPrepareParams(new TextDocumentIdentifier(uri1.toString()), new Position(2, 2)));
+    assertEquals(1, items.size());
+    var a = items.get(0);
+    assertEquals("a", a.getName());
+    assertEquals("man_or_boy.a", a.getDetail());
+
+    var incoming = CallHierarchy.getIncomingCalls(new CallHierarchyIncomingCallsParams(a));
+    assertTrue(incoming.stream().anyMatch(call -> call.getFrom().getDetail().equals("man_or_boy")));
+
+    var mainItems = CallHierarchy.getCallHierarchyItems(
+      new CallHierarchyPrepareParams(new TextDocumentIdentifier(uri1.toString()), new Position(0, 0)));
+    var outgoing = CallHierarchy.getOutgoingCalls(new CallHierarchyOutgoingCallsParams(mainItems.get(0)));
+    assertTrue(outgoing.stream().anyMatch(call -> call.getTo().getName().equals("say")));
+    assertTrue(outgoing.stream().anyMatch(call -> call.getTo().getDetail().equals("man_or_boy.a")));
+  }
+
+  @Test
+  public void OverloadsAreDistinctNodes()
+  {
+    SourceText.setText(uri1, """
+      ex is
+        f(a i32) => a
+        f(a, b i32) => a + b
+        g => f 1
+        g
+      """);
+    var g = CallHierarchy.getCallHierarchyItems(
+      new CallHierarchyPrepareParams(new TextDocumentIdentifier(uri1.toString()), new Position(3, 2)));
+    assertEquals("ex.g", g.get(0).getDetail());
+    var outgoing = CallHierarchy.getOutgoingCalls(new CallHierarchyOutgoingCallsParams(g.get(0)));
+    var f = CallHierarchy.getCallHierarchyItems(
+      new CallHierarchyPrepareParams(new TextDocumentIdentifier(uri1.toString()), new Position(2, 2)));
+    assertEquals(1, outgoing.stream().filter(call -> call.getTo().getName().equals("f")).count());
+    assertTrue(CallHierarchy.getIncomingCalls(new CallHierarchyIncomingCallsParams(f.get(0))).isEmpty());
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class CodeLensesTest
+ *
+ *---------------------------------------------------------------------*/
+
+
+package test.flang.lsp.server.feature;
+
+import java.util.List;
+
+import org.eclipse.lsp4j.CodeLensParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.junit.jupiter.api.Test;
+
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.feature.CodeLenses;
+import test.flang.lsp.server.BaseTest;
+
+public class CodeLensesTest extends BaseTest
+{
+  private static final String Sum = """
+    ex =>
+      sum(a, b i32) => a + b
+      say (sum 1 2)
+      say (sum 3 4)
+    """;
+
+  @Test
+  public void CodeLensesUnresolved()
+  {
+    SourceText.setText(uri1, Sum);
+    var codeLenses = CodeLenses.getCodeLenses(new CodeLensParams(new TextDocumentIdentifier(uri1.toString())));
+
+    assertEquals(2, codeLenses.stream().filter(c -> c.getCommand() != null).count());
+    assertTrue(codeLenses.stream().anyMatch(c -> c.getCommand() == null
+      && c.getRange().getStart().equals(new Position(1, 2))));
+  }
+
+  @Test
+  public void CodeLensesResolveReferenceCount()
+  {
+    SourceText.setText(uri1, Sum);
+    var codeLens = CodeLenses.getCodeLenses(new CodeLensParams(new TextDocumentIdentifier(uri1.toString())))
+      .stream()
+      .filter(c -> c.getCommand() == null && c.getRange().getStart().equals(new Position(1, 2)))
+      .findFirst()
+      .get();
+
+    var command = CodeLenses.resolveCodeLens(codeLens).getCommand();
+    assertEquals("2 references", command.getTitle());
+    assertEquals("editor.action.showReferences", command.getCommand());
+    assertEquals(2, ((List<?>) command.getArguments().get(2)).size());
+  }
+
+  @Test
+  public void CodeLensesResolveAfterEdit()
+  {
+    SourceText.setText(uri1, Sum);
+    var codeLens = CodeLenses.getCodeLenses(new CodeLensParams(new TextDocumentIdentifier(uri1.toString())))
+      .stream()
+      .filter(c -> c.getCommand() == null && c.getRange().getStart().equals(new Position(1, 2)))
+      .findFirst()
+      .get();
+
+    SourceText.setText(uri1, """
+      ex =>
+        x => 0
+        sum(a, b i32) => a + b
+        say (sum 1 2)
+        say (sum 3 4)
+      """);
+
+    assertEquals("2 references", CodeLenses.resolveCodeLens(codeLens).getCommand().getTitle());
+  }
+
+}
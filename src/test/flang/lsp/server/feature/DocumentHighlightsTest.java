@@ -0,0 +1,65 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class DocumentHighlightsTest
+ *
+ *---------------------------------------------------------------------*/
+
+
+package test.flang.lsp.server.feature;
+
+import org.eclipse.lsp4j.DocumentHighlightKind;
+import org.eclipse.lsp4j.DocumentHighlightParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.junit.jupiter.api.Test;
+
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.feature.DocumentHighlights;
+import test.flang.lsp.server.BaseTest;
+
+public class DocumentHighlightsTest extends BaseTest
+{
+  @Test
+  public void DocumentHighlightsOfArgument()
+  {
+    SourceText.setText(uri1, ManOrBoy);
+    var highlights = DocumentHighlights.getDocumentHighlights(
+      new DocumentHighlightParams(new TextDocumentIdentifier(uri1.toString()), new Position(2, 4)));
+
+    assertTrue(highlights.size() > 1);
+    assertTrue(highlights.stream().allMatch(h -> h.getRange().getEnd().getCharacter()
+      - h.getRange().getStart().getCharacter() == 1));
+    assertEquals(1, highlights.stream().filter(h -> h.getKind() == DocumentHighlightKind.Write).count());
+    assertTrue(highlights.stream().anyMatch(h -> h.getRange().getStart().getLine() == 4));
+  }
+
+  @Test
+  public void DocumentHighlightsNothingAtCursor()
+  {
+    SourceText.setText(uri1, ManOrBoy);
+    var highlights = DocumentHighlights.getDocumentHighlights(
+      new DocumentHighlightParams(new TextDocumentIdentifier(uri1.toString()), new Position(1, 0)));
+    assertTrue(highlights.isEmpty());
+  }
+
+}
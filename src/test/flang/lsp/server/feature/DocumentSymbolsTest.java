@@ -0,0 +1,191 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class DocumentSymbolsTest
+ *
+ *---------------------------------------------------------------------*/
+
+
+package test.flang.lsp.server.feature;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.eclipse.lsp4j.DocumentSymbol;
+import org.eclipse.lsp4j.DocumentSymbolParams;
+import org.eclipse.lsp4j.MessageActionItem;
+import org.eclipse.lsp4j.MessageParams;
+import org.eclipse.lsp4j.ProgressParams;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.ShowMessageRequestParams;
+import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.services.LanguageClient;
+import org.junit.jupiter.api.Test;
+
+import dev.flang.lsp.server.Config;
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.feature.DocumentSymbols;
+import test.flang.lsp.server.BaseTest;
+
+public class DocumentSymbolsTest extends BaseTest
+{
+  @Test
+  public void DocumentSymbolsOutline()
+  {
+    SourceText.setText(uri1, ManOrBoy);
+    var symbols = DocumentSymbols.getDocumentSymbols(new DocumentSymbolParams(new TextDocumentIdentifier(uri1.toString())));
+
+    assertEquals(1, symbols.size());
+    var root = symbols.get(0).getRight();
+    assertEquals(SymbolKind.Class, root.getKind());
+    assertEquals(0, root.getRange().getStart().getLine());
+    assertEquals(9, root.getRange().getEnd().getLine());
+    assertTrue(root.getChildren().stream().noneMatch(s -> s.getKind() == SymbolKind.Key));
+  }
+
+  @Test
+  public void DocumentSymbolsCachedPerVersion()
+  {
+    SourceText.setText(uri1, ManOrBoy);
+    var params = new DocumentSymbolParams(new TextDocumentIdentifier(uri1.toString()));
+    var first = DocumentSymbols.getDocumentSymbols(params).get(0).getRight();
+
+    assertSame(first, DocumentSymbols.getDocumentSymbols(params).get(0).getRight());
+
+    SourceText.setText(uri1, HelloWorld);
+    assertNotSame(first, DocumentSymbols.getDocumentSymbols(params).get(0).getRight());
+  }
+
+  @Test
+  public void DocumentSymbolsParseOnly()
+  {
+    var outline = DocumentSymbols.ParseOnlyOutline(ManOrBoy);
+
+    assertEquals(1, outline.size());
+    var root = outline.get(0);
+    assertEquals("man_or_boy", root.getName());
+    assertEquals(9, root.getRange().getEnd().getLine());
+    assertEquals(2, root.getChildren().size());
+
+    var a = root.getChildren().get(0);
+    assertEquals("a", a.getName());
+    assertEquals(SymbolKind.Class, a.getKind());
+    assertEquals(2, a.getRange().getStart().getLine());
+    assertEquals(4, a.getRange().getEnd().getLine());
+    assertEquals("b", a.getChildren().get(0).getName());
+    assertEquals(SymbolKind.Function, a.getChildren().get(0).getKind());
+
+    assertEquals("K", root.getChildren().get(1).getName());
+  }
+
+  @Test
+  public void DocumentSymbolsSameSetWithAndWithoutFrontEnd()
+  {
+    var sourceText = """
+      ex is
+        x := 3
+        f(y i32) => x + y
+      """;
+    SourceText.setText(uri1, sourceText);
+    var root = DocumentSymbols.getDocumentSymbols(new DocumentSymbolParams(new TextDocumentIdentifier(uri1.toString())))
+      .get(0)
+      .getRight();
+    var parseOnlyRoot = DocumentSymbols.ParseOnlyOutline(sourceText).get(0);
+
+    assertEquals(1, root.getChildren().size());
+    assertEquals("f", parseOnlyRoot.getChildren().get(0).getName());
+    assertEquals(root.getChildren().size(), parseOnlyRoot.getChildren().size());
+  }
+
+  @Test
+  public void DocumentSymbolsPartialResults()
+  {
+    var features = 1100;
+    SourceText.setText(uri1, "ex is\n" + IntStream.range(0, features)
+      .mapToObj(i -> "  f" + i + " => " + i + "\n")
+      .collect(Collectors.joining()));
+    var progress = new ArrayList<ProgressParams>();
+    Config.setLanguageClient(new LanguageClient() {
+      @Override
+      public void telemetryEvent(Object object)
+      {
+      }
+
+      @Override
+      public void publishDiagnostics(PublishDiagnosticsParams diagnostics)
+      {
+      }
+
+      @Override
+      public void showMessage(MessageParams messageParams)
+      {
+      }
+
+      @Override
+      public CompletableFuture<MessageActionItem> showMessageRequest(ShowMessageRequestParams requestParams)
+      {
+        return CompletableFuture.completedFuture(null);
+      }
+
+      @Override
+      public void logMessage(MessageParams message)
+      {
+      }
+
+      @Override
+      public void notifyProgress(ProgressParams params)
+      {
+        progress.add(params);
+      }
+    });
+    try
+      {
+        var params = new DocumentSymbolParams(new TextDocumentIdentifier(uri1.toString()));
+        params.setPartialResultToken(Either.forLeft("token"));
+
+        assertTrue(DocumentSymbols.getDocumentSymbols(params).isEmpty());
+        assertFalse(progress.isEmpty());
+        assertTrue(progress.stream().allMatch(p -> p.getToken().getLeft().equals("token")));
+        assertEquals(1 + features, progress
+          .stream()
+          .mapToInt(p -> Count((List<?>) p.getValue().getRight()))
+          .sum());
+      } finally
+      {
+        Config.setLanguageClient(null);
+      }
+  }
+
+  private static int Count(List<?> symbols)
+  {
+    return symbols
+      .stream()
+      .mapToInt(symbol -> 1 + Count(((DocumentSymbol) symbol).getChildren()))
+      .sum();
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class FoldingRangesTest
+ *
+ *---------------------------------------------------------------------*/
+
+
+package test.flang.lsp.server.feature;
+
+import java.util.stream.Collectors;
+
+import org.eclipse.lsp4j.FoldingRangeKind;
+import org.eclipse.lsp4j.FoldingRangeRequestParams;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.junit.jupiter.api.Test;
+
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.feature.FoldingRanges;
+import test.flang.lsp.server.BaseTest;
+
+public class FoldingRangesTest extends BaseTest
+{
+  @Test
+  public void FoldingRangesByIndentation()
+  {
+    SourceText.setText(uri1, ManOrBoy);
+    var foldingRanges = FoldingRanges
+      .getFoldingRanges(new FoldingRangeRequestParams(new TextDocumentIdentifier(uri1.toString())))
+      .stream()
+      .map(r -> r.getStartLine() + "-" + r.getEndLine())
+      .collect(Collectors.joining(","));
+    assertEquals("0-9,2-4,8-9", foldingRanges);
+  }
+
+  @Test
+  public void FoldingRangesCommentBlock()
+  {
+    SourceText.setText(uri1, """
+      # first
+      # second
+      ex is
+        # not folded
+        say "hello"
+      """);
+    var foldingRanges =
+      FoldingRanges.getFoldingRanges(new FoldingRangeRequestParams(new TextDocumentIdentifier(uri1.toString())));
+    assertEquals(2, foldingRanges.size());
+    assertEquals(FoldingRangeKind.Comment, foldingRanges.get(0).getKind());
+    assertEquals(0, foldingRanges.get(0).getStartLine());
+    assertEquals(1, foldingRanges.get(0).getEndLine());
+    assertEquals(FoldingRangeKind.Region, foldingRanges.get(1).getKind());
+    assertEquals(2, foldingRanges.get(1).getStartLine());
+    assertEquals(4, foldingRanges.get(1).getEndLine());
+  }
+
+}
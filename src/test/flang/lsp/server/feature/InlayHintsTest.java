@@ -0,0 +1,91 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class InlayHintsTest
+ *
+ *---------------------------------------------------------------------*/
+
+
+package test.flang.lsp.server.feature;
+
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.junit.jupiter.api.Test;
+
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.feature.InlayHints;
+import test.flang.lsp.server.BaseTest;
+
+public class InlayHintsTest extends BaseTest
+{
+  private static final String Sum = """
+    ex =>
+      x := 42
+      y i32 := 3
+      sum(a, b i32) => a + b
+      say (sum x y)
+    """;
+
+  private static InlayHints.InlayHintParams Params(int fromLine, int toLine)
+  {
+    return new InlayHints.InlayHintParams(new TextDocumentIdentifier(uri1.toString()),
+      new Range(new Position(fromLine, 0), new Position(toLine, 0)));
+  }
+
+  @Test
+  public void InlayHintsInferredType()
+  {
+    SourceText.setText(uri1, Sum);
+    var hints = InlayHints.getInlayHints(Params(0, 5));
+    var typeHints = hints
+      .stream()
+      .filter(h -> h.getKind() == InlayHints.InlayHint.KIND_TYPE)
+      .toList();
+
+    assertEquals(1, typeHints.size());
+    assertEquals("i32", typeHints.get(0).getLabel());
+    assertEquals(new Position(1, 3), typeHints.get(0).getPosition());
+  }
+
+  @Test
+  public void InlayHintsArgumentNames()
+  {
+    SourceText.setText(uri1, Sum);
+    var hints = InlayHints.getInlayHints(Params(0, 5));
+
+    assertTrue(hints.stream().anyMatch(h -> h.getLabel().equals("a:")
+      && h.getPosition().equals(new Position(4, 11))));
+    assertTrue(hints.stream().anyMatch(h -> h.getLabel().equals("b:")
+      && h.getPosition().equals(new Position(4, 13))));
+  }
+
+  @Test
+  public void InlayHintsOnlyInRange()
+  {
+    SourceText.setText(uri1, Sum);
+    var hints = InlayHints.getInlayHints(Params(2, 3));
+
+    assertTrue(hints.isEmpty());
+  }
+
+}
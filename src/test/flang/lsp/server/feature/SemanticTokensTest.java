@@ -0,0 +1,97 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class SemanticTokensTest
+ *
+ *---------------------------------------------------------------------*/
+
+
+package test.flang.lsp.server.feature;
+
+import java.util.List;
+
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SemanticTokensDeltaParams;
+import org.eclipse.lsp4j.SemanticTokensParams;
+import org.eclipse.lsp4j.SemanticTokensRangeParams;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.junit.jupiter.api.Test;
+
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.feature.SemanticTokens;
+import test.flang.lsp.server.BaseTest;
+
+public class SemanticTokensTest extends BaseTest
+{
+  private static final String HelloWorld = """
+    HelloWorld is
+      say "Hello World!"
+    """;
+
+  @Test
+  public void SemanticTokensFull()
+  {
+    SourceText.setText(uri1, HelloWorld);
+    var data = SemanticTokens.getSemanticTokens(new SemanticTokensParams(new TextDocumentIdentifier(uri1.toString())))
+      .getData();
+    // HelloWorld: function declaration
+    assertEquals(List.of(0, 0, 10, 5, 1), data.subList(0, 5));
+    // is: keyword
+    assertEquals(List.of(0, 11, 2, 0, 0), data.subList(5, 10));
+    // say: function
+    assertEquals(List.of(1, 2, 3, 5, 0), data.subList(10, 15));
+    // "Hello World!": string
+    assertEquals(List.of(0, 4, 14, 2, 0), data.subList(15, 20));
+  }
+
+  @Test
+  public void SemanticTokensDelta()
+  {
+    var textDocument = new TextDocumentIdentifier(uri1.toString());
+    SourceText.setText(uri1, HelloWorld);
+    var full = SemanticTokens.getSemanticTokens(new SemanticTokensParams(textDocument));
+
+    SourceText.setText(uri1, HelloWorld.replace("Hello World!", "Hello!"));
+    var delta = SemanticTokens.getSemanticTokensDelta(new SemanticTokensDeltaParams(textDocument, full.getResultId()));
+    assertTrue(delta.isRight());
+    var edits = delta.getRight().getEdits();
+    assertEquals(1, edits.size());
+    assertEquals(17, edits.get(0).getStart());
+    assertEquals(1, edits.get(0).getDeleteCount());
+    assertEquals(List.of(8), edits.get(0).getData());
+
+    var outdated = SemanticTokens.getSemanticTokensDelta(new SemanticTokensDeltaParams(textDocument, full.getResultId()));
+    assertTrue(outdated.isLeft());
+  }
+
+  @Test
+  public void SemanticTokensRange()
+  {
+    SourceText.setText(uri1, HelloWorld);
+    var data = SemanticTokens.getSemanticTokensRange(new SemanticTokensRangeParams(
+      new TextDocumentIdentifier(uri1.toString()), new Range(new Position(1, 0), new Position(1, 20))))
+      .getData();
+    assertEquals(List.of(1, 2, 3, 5, 0, 0, 4, 14, 2, 0), data);
+  }
+
+}
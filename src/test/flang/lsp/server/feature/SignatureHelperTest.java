@@ -85,6 +85,23 @@ public class SignatureHelperTest extends BaseTest
       LabelAt(uri1, new Position(20, 17), 0));
   }
 
+  @Test
+  public void getSignatureHelpInnerScopeShadowsByArity()
+  {
+    SourceText.setText(uri1, """
+      ex is
+        say(a, b i32) is
+        say "
+      """);
+    var signatures = SignatureHelper
+      .getSignatureHelp(new SignatureHelpParams(LSP4jUtils.TextDocumentIdentifier(uri1), new Position(2, 5)))
+      .getSignatures();
+    assertEquals(3, signatures.size());
+    assertTrue(signatures.get(0).getLabel().startsWith("say(a i32, b i32)"));
+    assertTrue(signatures.stream().anyMatch(s -> s.getLabel().equals("say(s Object) => unit")));
+    assertTrue(signatures.stream().anyMatch(s -> s.getLabel().equals("say() => unit")));
+  }
+
   private String LabelAt(URI uri, final Position position, int index)
   {
     return SignatureHelper.getSignatureHelp(new SignatureHelpParams(LSP4jUtils.TextDocumentIdentifier(uri), position))
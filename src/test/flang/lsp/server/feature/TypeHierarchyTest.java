@@ -0,0 +1,114 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class TypeHierarchyTest
+ *
+ *---------------------------------------------------------------------*/
+
+
+package test.flang.lsp.server.feature;
+
+import java.util.stream.Collectors;
+
+import org.eclipse.lsp4j.ImplementationParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentPositionParams;
+import org.junit.jupiter.api.Test;
+
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.feature.TypeHierarchy;
+import dev.flang.lsp.server.util.FuzionParser;
+import test.flang.lsp.server.BaseTest;
+
+public class TypeHierarchyTest extends BaseTest
+{
+  private static final String Animals = """
+    ex is
+      animal is
+      dog : animal is
+      cat : animal is
+    """;
+
+  @Test
+  public void PrepareTypeHierarchy()
+  {
+    SourceText.setText(uri1, Animals);
+    var items = TypeHierarchy.getPrepareTypeHierarchy(
+      new TextDocumentPositionParams(new TextDocumentIdentifier(uri1.toString()), new Position(1, 2)));
+    assertEquals(1, items.size());
+    assertEquals("ex.animal", items.get(0).getDetail());
+  }
+
+  @Test
+  public void Subtypes()
+  {
+    SourceText.setText(uri1, Animals);
+    var item = TypeHierarchy.getPrepareTypeHierarchy(
+      new TextDocumentPositionParams(new TextDocumentIdentifier(uri1.toString()), new Position(1, 2))).get(0);
+    assertEquals("cat,dog", TypeHierarchy.getSubtypes(new TypeHierarchy.TypeHierarchySubtypesParams(item))
+      .stream()
+      .map(child -> child.getName())
+      .sorted()
+      .collect(Collectors.joining(",")));
+  }
+
+  @Test
+  public void Supertypes()
+  {
+    SourceText.setText(uri1, Animals);
+    var item = TypeHierarchy.getPrepareTypeHierarchy(
+      new TextDocumentPositionParams(new TextDocumentIdentifier(uri1.toString()), new Position(2, 2))).get(0);
+    assertTrue(TypeHierarchy.getSupertypes(new TypeHierarchy.TypeHierarchySupertypesParams(item))
+      .stream()
+      .anyMatch(parent -> parent.getDetail().equals("ex.animal")));
+  }
+
+  @Test
+  public void SubtypesOfSameNamedFeatureInOtherFile()
+  {
+    SourceText.setText(uri1, Animals);
+    SourceText.setText(uri2, """
+      ex is
+        animal is
+        cow : animal is
+      """);
+    FuzionParser.MainOrUniverse(uri2);
+    var item = TypeHierarchy.getPrepareTypeHierarchy(
+      new TextDocumentPositionParams(new TextDocumentIdentifier(uri1.toString()), new Position(1, 2))).get(0);
+    assertEquals("cat,dog", TypeHierarchy.getSubtypes(new TypeHierarchy.TypeHierarchySubtypesParams(item))
+      .stream()
+      .map(child -> child.getName())
+      .sorted()
+      .collect(Collectors.joining(",")));
+  }
+
+  @Test
+  public void Implementations()
+  {
+    SourceText.setText(uri1, Animals);
+    var implementations = TypeHierarchy.getImplementations(
+      new ImplementationParams(new TextDocumentIdentifier(uri1.toString()), new Position(1, 2)));
+    assertEquals(2, implementations.size());
+  }
+
+}
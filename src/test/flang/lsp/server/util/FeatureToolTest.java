@@ -27,11 +27,15 @@ Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
 
 package test.flang.lsp.server.util;
 
+import java.util.stream.IntStream;
+
 import org.junit.jupiter.api.Test;
 
 import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.records.FeatureTable;
 import dev.flang.lsp.server.util.FeatureTool;
 import dev.flang.lsp.server.util.FuzionParser;
+import dev.flang.lsp.server.util.PackedPosition;
 import test.flang.lsp.server.BaseTest;
 
 public class FeatureToolTest extends BaseTest
@@ -85,4 +89,161 @@ public class FeatureToolTest extends BaseTest
       FeatureTool.CommentOf(yak));
   }
 
+  @Test
+  public void ToLabelIsCached()
+  {
+    SourceText.setText(uri1, HelloWorld);
+    var yak = FuzionParser
+      .DeclaredFeatures(FuzionParser.universe(uri1))
+      .filter(f -> f.featureName().baseName().equals("yak"))
+      .findFirst()
+      .get();
+    assertEquals("yak(s Object) => unit", FeatureTool.ToLabel(yak));
+    assertSame(FeatureTool.ToLabel(yak), FeatureTool.ToLabel(yak));
+  }
+
+  @Test
+  public void ToLabelByIdIsCachedInSnapshot()
+  {
+    SourceText.setText(uri1, """
+      ex is
+        inner(x i32) is
+      """);
+    var main = FuzionParser.MainOrUniverse(uri1);
+    var astIndex = FeatureTool.AstIndexOf(main).get();
+    var inner = astIndex.idOf(FuzionParser.DeclaredFeatures(main).findFirst().get());
+    assertEquals("inner(x i32) => unit", FeatureTool.ToLabel(astIndex, inner));
+    assertSame(FeatureTool.ToLabel(astIndex, inner), FeatureTool.ToLabel(astIndex, inner));
+  }
+
+  @Test
+  public void ToLabelOfDocumentFeatureIsStoredById()
+  {
+    SourceText.setText(uri1, """
+      ex is
+        inner(x i32) is
+      """);
+    var main = FuzionParser.MainOrUniverse(uri1);
+    var astIndex = FeatureTool.AstIndexOf(main).get();
+    var inner = FuzionParser.DeclaredFeatures(main).findFirst().get();
+    assertSame(FeatureTool.ToLabel(inner), FeatureTool.ToLabel(astIndex, astIndex.idOf(inner)));
+  }
+
+  @Test
+  public void CommentOfInMarkdown()
+  {
+    var CommentExample = """
+      outerFeat is
+        # first comment line
+        #
+        # 1. second comment line
+        innerFeat is
+          say "nothing"
+      """;
+    SourceText.setText(uri1, CommentExample);
+    var innerFeature = FuzionParser
+      .DeclaredFeatures(FuzionParser.MainOrUniverse(uri1))
+      .findFirst()
+      .orElseThrow();
+    assertEquals("*first comment line*" + System.lineSeparator()
+      + "**" + System.lineSeparator()
+      + "*1\\. second comment line*",
+      FeatureTool.CommentOfInMarkdown(innerFeature));
+  }
+
+  @Test
+  public void ResolveInScope()
+  {
+    var sourceText = """
+      ex is
+        i32 is
+        inner is
+          say "inner"
+      """;
+    SourceText.setText(uri1, sourceText);
+    var inner = FeatureTool.DeclaredFeaturesRecursive(FuzionParser.MainOrUniverse(uri1))
+      .filter(f -> f.featureName().baseName().equals("inner"))
+      .findFirst()
+      .get();
+    var i32 = FeatureTool.ResolveInScope(inner, "i32");
+    assertEquals(1, i32.size());
+    assertEquals("ex.i32", i32.get(0).qualifiedName());
+    assertTrue(FeatureTool.ResolveInScope(inner, "say").size() > 0);
+    assertTrue(FeatureTool.ResolveInScope(inner, "notDefinedAnywhere").isEmpty());
+  }
+
+  @Test
+  public void ResolveInScopeInheritedShadowsOuter()
+  {
+    var sourceText = """
+      ex is
+        say(a i32) is
+        p is
+          say is
+        q : p is
+      """;
+    SourceText.setText(uri1, sourceText);
+    var q = FeatureTool.DeclaredFeaturesRecursive(FuzionParser.MainOrUniverse(uri1))
+      .filter(f -> f.featureName().baseName().equals("q"))
+      .findFirst()
+      .get();
+    var say = FeatureTool.ResolveInScope(q, "say");
+    assertEquals(2, say.size());
+    assertEquals("ex.p.say", say.get(0).qualifiedName());
+    assertEquals("ex.say", say.get(1).qualifiedName());
+  }
+
+  @Test
+  public void FeatureTable()
+  {
+    var sourceText = """
+      ex is
+        inner(x i32) is
+          say x
+        inner 3
+      """;
+    SourceText.setText(uri1, sourceText);
+    var main = FuzionParser.MainOrUniverse(uri1);
+    var table = FeatureTool.FeatureTableOf(main).get();
+    var astIndex = FeatureTool.AstIndexOf(main).get();
+    var inner = astIndex.idOf(FeatureTool.DeclaredFeaturesRecursive(main)
+      .filter(f -> f.featureName().baseName().equals("inner"))
+      .findFirst()
+      .get());
+    assertEquals(0, astIndex.idOf(main));
+    assertEquals(-1, table.outer()[0]);
+    assertEquals("inner", table.name(inner));
+    assertEquals(0, table.outer()[inner]);
+    assertEquals(FeatureTable.KIND_ROUTINE, table.kinds()[inner]);
+    assertEquals(2, PackedPosition.Line(table.positions()[inner]));
+
+    var calls = FeatureTool.CallTableOf(main).get();
+    assertTrue(IntStream.of(calls.targets()).anyMatch(target -> target == inner));
+  }
+
+  @Test
+  public void FeatureTableIsLast()
+  {
+    var sourceText = """
+      ex is
+        a is
+        b is
+      """;
+    SourceText.setText(uri1, sourceText);
+    var main = FuzionParser.MainOrUniverse(uri1);
+    var table = FeatureTool.FeatureTableOf(main).get();
+    var astIndex = FeatureTool.AstIndexOf(main).get();
+    var a = astIndex.idOf(FeatureTool.DeclaredFeaturesRecursive(main)
+      .filter(f -> f.featureName().baseName().equals("a"))
+      .findFirst()
+      .get());
+    var b = astIndex.idOf(FeatureTool.DeclaredFeaturesRecursive(main)
+      .filter(f -> f.featureName().baseName().equals("b"))
+      .findFirst()
+      .get());
+    assertTrue(table.isLast(astIndex.idOf(main)));
+    assertFalse(table.isLast(a));
+    assertTrue(table.isLast(b));
+  }
+
 }
@@ -112,4 +112,30 @@ public class FuzionLexerTest extends BaseTest {
     assertEquals(4, endOfToken.getCharacter());
     assertEquals(2, endOfToken.getLine());
   }
+
+  @Test
+  public void IsTriviaOnlyChange()
+  {
+    var text = """
+      ex is
+        say 1
+      """;
+    assertTrue(FuzionLexer.IsTriviaOnlyChange(text, """
+      ex is
+        # comment
+        say 1
+      """));
+    assertTrue(FuzionLexer.IsTriviaOnlyChange(text, """
+      ex is
+        say 1   # comment
+      """));
+    assertFalse(FuzionLexer.IsTriviaOnlyChange(text, """
+      ex is
+        say 12
+      """));
+    assertFalse(FuzionLexer.IsTriviaOnlyChange(text, """
+      ex is
+          say 1
+      """));
+  }
 }
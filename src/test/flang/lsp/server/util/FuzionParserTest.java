@@ -32,13 +32,17 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 
 import java.nio.file.Path;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import dev.flang.ast.AbstractFeature;
 import dev.flang.lsp.server.SourceText;
 import dev.flang.lsp.server.Util;
+import dev.flang.lsp.server.util.Bridge;
+import dev.flang.lsp.server.util.FeatureCache;
 import dev.flang.lsp.server.util.FeatureTool;
 import dev.flang.lsp.server.util.FuzionParser;
 import dev.flang.lsp.server.util.QueryAST;
@@ -151,6 +155,38 @@ public class FuzionParserTest extends BaseTest
   }
 
 
+  /**
+   * a cache like the member tables of FuzionParser, see declaredFeaturesMemoized
+   */
+  private static final FeatureCache<AbstractFeature[]> DeclaredFeaturesTable = new FeatureCache<>();
+
+  @Test
+  public void declaredFeaturesMemoized()
+  {
+    var sourceText = """
+        example is
+          childFeat1 is
+          childFeat2 is
+          (1..10).forAll(x -> say x)
+      """;
+    SourceText.setText(uri1, sourceText);
+    var f = FuzionParser.MainOrUniverse(uri1);
+    var computations = new AtomicInteger();
+    var first = DeclaredFeaturesTable.get(f, feature -> {
+      computations.incrementAndGet();
+      return FuzionParser.DeclaredFeatures(feature).toArray(AbstractFeature[]::new);
+    });
+    var second = DeclaredFeaturesTable.get(f, feature -> {
+      computations.incrementAndGet();
+      return FuzionParser.DeclaredFeatures(feature).toArray(AbstractFeature[]::new);
+    });
+    assertSame(first, second);
+    assertEquals(1, computations.get());
+    assertEquals(2, FuzionParser.DeclaredFeatures(f).count());
+    assertTrue(FuzionParser.DeclaredFeatures(f, true).anyMatch(x -> FeatureTool.IsAnonymousInnerFeature(x)));
+  }
+
+
   @Test
   public void declaredFeaturesUniverse()
   {
@@ -219,5 +255,112 @@ public class FuzionParserTest extends BaseTest
     assertTrue(FuzionParser.Errors(uri).findAny().isEmpty());
   }
 
+  @Test
+  public void LastGoodParseOfOpenDocument()
+  {
+    var uri = Util.toURI(Path.of("/").toUri().toString() + "lastGood");
+    SourceText.open(uri, """
+      lastGood is
+        say "Hello World!"
+      """);
+    var good = FuzionParser.MainOrUniverse(uri);
+    assertEquals(0, FuzionParser.Errors(uri).count());
+
+    SourceText.setText(uri, """
+      lastGood is
+        say "Hello World!"
+        (1..10).
+      """);
+    assertTrue(FuzionParser.Errors(uri).count() > 0);
+    assertSame(good, FuzionParser.MainOrUniverse(uri));
+  }
+
+  @Test
+  public void CommentOnlyChangeIsNotReparsed()
+  {
+    var uri = Util.toURI(Path.of("/").toUri().toString() + "trivia");
+    SourceText.setText(uri, """
+      trivia is
+        say "Hello World!"
+      """);
+    var main = FuzionParser.MainOrUniverse(uri);
+
+    SourceText.setText(uri, """
+      # a comment
+      trivia is
+        say "Hello World!"
+      """);
+    assertSame(main, FuzionParser.MainOrUniverse(uri));
+    assertEquals(1, Bridge.ToPosition(main.pos()).getLine());
+
+    SourceText.setText(uri, """
+      # a comment
+      trivia is
+        say "Hello World!"   # another comment
+      """);
+    assertSame(main, FuzionParser.MainOrUniverse(uri));
+
+    SourceText.setText(uri, """
+      # a comment
+      trivia is
+        say "Hello again!"   # another comment
+      """);
+    assertNotSame(main, FuzionParser.MainOrUniverse(uri));
+  }
+
+  @Test
+  public void ReopenAfterCloseIsNotReparsed()
+  {
+    var uri = Util.toURI(Path.of("/").toUri().toString() + "reopen");
+    SourceText.open(uri, HelloWorld);
+    var main = FuzionParser.MainOrUniverse(uri);
+
+    FuzionParser.Close(uri);
+    SourceText.close(uri);
+    assertFalse(SourceText.isOpen(uri));
+
+    SourceText.open(uri, HelloWorld);
+    assertSame(main, FuzionParser.MainOrUniverse(uri));
+  }
+
+  @Test
+  public void ParserCacheBudgetDemotesLeastRecentlyUsed()
+  {
+    var budget = System.getProperty("fuzion.lsp.parserCacheBudget");
+    System.setProperty("fuzion.lsp.parserCacheBudget", "0");
+    try
+      {
+        var uriA = Util.toURI(Path.of("/").toUri().toString() + "budgetA");
+        var uriB = Util.toURI(Path.of("/").toUri().toString() + "budgetB");
+        SourceText.setText(uriA, """
+          budgetA is
+            say "A"
+          """);
+        SourceText.setText(uriB, """
+          budgetB is
+            say "B"
+          """);
+        var mainA = FuzionParser.MainOrUniverse(uriA);
+        assertTrue(FeatureTool.FeatureTableOf(mainA).isPresent());
+
+        FuzionParser.MainOrUniverse(uriB);
+        // over budget, the record of uriA is demoted and its caches are dropped
+        assertTrue(FeatureTool.FeatureTableOf(mainA).isEmpty());
+
+        var mainAAgain = FuzionParser.MainOrUniverse(uriA);
+        assertEquals("budgetA", mainAAgain.featureName().baseName());
+        assertTrue(FeatureTool.FeatureTableOf(mainAAgain).isPresent());
+      } finally
+      {
+        if (budget == null)
+          {
+            System.clearProperty("fuzion.lsp.parserCacheBudget");
+          }
+        else
+          {
+            System.setProperty("fuzion.lsp.parserCacheBudget", budget);
+          }
+      }
+  }
 
 }
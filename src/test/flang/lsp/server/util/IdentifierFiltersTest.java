@@ -0,0 +1,51 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class IdentifierFiltersTest
+ *
+ *---------------------------------------------------------------------*/
+
+
+package test.flang.lsp.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.util.IdentifierFilters;
+import test.flang.lsp.server.BaseTest;
+
+public class IdentifierFiltersTest extends BaseTest
+{
+  @Test
+  public void MightContain()
+  {
+    SourceText.setText(uri1, ManOrBoy);
+    assertTrue(IdentifierFilters.MightContain(uri1, "man_or_boy"));
+    assertTrue(IdentifierFilters.MightContain(uri1, "say"));
+    assertTrue(IdentifierFilters.MightContain(uri1, "infix <="));
+    assertFalse(IdentifierFilters.MightContain(uri1, "mandelbrot"));
+
+    SourceText.setText(uri1, HelloWorld);
+    assertFalse(IdentifierFilters.MightContain(uri1, "man_or_boy"));
+  }
+
+}
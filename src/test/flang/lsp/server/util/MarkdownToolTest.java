@@ -0,0 +1,52 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class MarkdownToolTest
+ *
+ *---------------------------------------------------------------------*/
+
+package test.flang.lsp.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import dev.flang.lsp.server.util.MarkdownTool;
+import test.flang.lsp.server.BaseTest;
+
+public class MarkdownToolTest extends BaseTest
+{
+  @Test
+  public void Escape()
+  {
+    assertEquals("say\\(s Object\\) => unit", MarkdownTool.Escape("say(s Object) => unit"));
+    assertEquals("\\*\\*not bold\\*\\* \\`code\\` \\\\", MarkdownTool.Escape("**not bold** `code` \\"));
+    assertEquals("choice<node, unit>", MarkdownTool.Escape("choice<node, unit>"));
+  }
+
+  @Test
+  public void Italic()
+  {
+    assertEquals("", MarkdownTool.Italic("  "));
+    assertEquals("*first*" + System.lineSeparator() + "*second*",
+      MarkdownTool.Italic("first" + System.lineSeparator() + "second"));
+  }
+
+}
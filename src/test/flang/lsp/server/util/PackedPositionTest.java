@@ -0,0 +1,53 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class PackedPositionTest
+ *
+ *---------------------------------------------------------------------*/
+
+package test.flang.lsp.server.util;
+
+import org.eclipse.lsp4j.Position;
+import org.junit.jupiter.api.Test;
+
+import dev.flang.lsp.server.util.PackedPosition;
+import test.flang.lsp.server.BaseTest;
+
+public class PackedPositionTest extends BaseTest
+{
+  @Test
+  public void Pack()
+  {
+    var packed = PackedPosition.Pack(new Position(3, 17));
+    assertEquals(3, PackedPosition.Line(packed));
+    assertEquals(17, PackedPosition.Column(packed));
+    assertEquals(new Position(3, 17), PackedPosition.ToPosition(packed));
+  }
+
+  @Test
+  public void Order()
+  {
+    assertTrue(PackedPosition.Pack(1, 200) < PackedPosition.Pack(2, 0));
+    assertTrue(PackedPosition.Pack(2, 3) < PackedPosition.Pack(2, 4));
+    assertEquals(PackedPosition.Pack(5, 5), PackedPosition.Pack(new Position(5, 5)));
+  }
+}
@@ -0,0 +1,110 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class PositionMappingTest
+ *
+ *---------------------------------------------------------------------*/
+
+package test.flang.lsp.server.util;
+
+import java.nio.file.Path;
+
+import org.eclipse.lsp4j.Position;
+import org.junit.jupiter.api.Test;
+
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.Util;
+import dev.flang.lsp.server.util.PositionMapping;
+import test.flang.lsp.server.BaseTest;
+
+public class PositionMappingTest extends BaseTest
+{
+  private static final String Version1 = """
+    ex is
+      say "hello"
+    """;
+
+  private static final String Version2 = """
+    # a comment
+    ex is
+      say "hello"
+    """;
+
+  private static final String Version3 = """
+    # a comment
+    ex is
+      say  "hello"
+    """;
+
+  @Test
+  public void ToCurrent()
+  {
+    var uri = Util.toURI(Path.of("/").toUri().toString() + "positionMapping");
+    SourceText.setText(uri, Version1);
+    var version1 = SourceText.getText(uri);
+    SourceText.setText(uri, Version2);
+    SourceText.setText(uri, Version3);
+
+    assertTrue(PositionMapping.CanMap(uri, version1));
+    // position of say
+    assertEquals(new Position(2, 2), PositionMapping.ToCurrent(uri, version1, new Position(1, 2)));
+    // position of "hello"
+    assertEquals(new Position(2, 7), PositionMapping.ToCurrent(uri, version1, new Position(1, 6)));
+  }
+
+  @Test
+  public void ToCurrentAfterUndo()
+  {
+    var uri = Util.toURI(Path.of("/").toUri().toString() + "positionMapping");
+    SourceText.setText(uri, Version1);
+    var version1 = SourceText.getText(uri);
+    SourceText.setText(uri, Version3);
+    SourceText.setText(uri, new String(Version1));
+
+    assertNotSame(version1, SourceText.getText(uri));
+    assertEquals(new Position(1, 6), PositionMapping.ToCurrent(uri, version1, new Position(1, 6)));
+    assertEquals(new Position(1, 6), PositionMapping.FromCurrent(uri, version1, new Position(1, 6)));
+  }
+
+  @Test
+  public void FromCurrent()
+  {
+    var uri = Util.toURI(Path.of("/").toUri().toString() + "positionMapping");
+    SourceText.setText(uri, Version1);
+    var version1 = SourceText.getText(uri);
+    SourceText.setText(uri, Version2);
+    SourceText.setText(uri, Version3);
+
+    assertEquals(new Position(1, 2), PositionMapping.FromCurrent(uri, version1, new Position(2, 2)));
+    assertEquals(new Position(1, 6), PositionMapping.FromCurrent(uri, version1, new Position(2, 7)));
+  }
+
+  @Test
+  public void UnknownVersion()
+  {
+    var uri = Util.toURI(Path.of("/").toUri().toString() + "positionMapping");
+    SourceText.setText(uri, Version1);
+    assertFalse(PositionMapping.CanMap(uri, new String(Version2)));
+    assertEquals(new Position(1, 2), PositionMapping.ToCurrent(uri, new String(Version2), new Position(1, 2)));
+  }
+
+}
@@ -27,14 +27,19 @@ Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
 
 package test.flang.lsp.server.util;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
 import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
 import dev.flang.ast.Call;
+import dev.flang.lsp.server.Config;
 import dev.flang.lsp.server.SourceText;
 import dev.flang.lsp.server.util.FuzionParser;
+import dev.flang.lsp.server.util.IO;
 import dev.flang.lsp.server.util.QueryAST;
 import test.flang.lsp.server.BaseTest;
 
@@ -453,4 +458,36 @@ public class QueryASTTest extends BaseTest
 
   }
 
+  @Test
+  public void CallsToInOtherFilesParsesWorkspaceFiles() throws IOException
+  {
+    var root = Files.createTempDirectory("workspace");
+    root.toFile().deleteOnExit();
+    var caller = root.resolve("caller.fz");
+    caller.toFile().deleteOnExit();
+    Files.writeString(caller, """
+      caller is
+        say "called from another file"
+      """);
+    Config.setWorkspaceRoots(List.of(root.toUri()));
+    IO.InvalidateWorkspaceFiles();
+    try
+      {
+        SourceText.setText(uri1, HelloWorld);
+        var say = FuzionParser
+          .DeclaredFeatures(FuzionParser.universe(uri1))
+          .filter(f -> f.featureName().baseName().equals("say") && f.arguments().size() == 1)
+          .findFirst()
+          .get();
+
+        assertTrue(QueryAST
+          .CallsToInOtherFiles(uri1, say)
+          .anyMatch(location -> location.getUri().equals(caller.toUri().toString())));
+      } finally
+      {
+        Config.setWorkspaceRoots(List.of());
+        IO.InvalidateWorkspaceFiles();
+      }
+  }
+
 }
@@ -0,0 +1,85 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class QueryTest
+ *
+ *---------------------------------------------------------------------*/
+
+package test.flang.lsp.server.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import dev.flang.lsp.server.util.Input;
+import dev.flang.lsp.server.util.Query;
+import test.flang.lsp.server.BaseTest;
+
+public class QueryTest extends BaseTest
+{
+  @Test
+  public void RecomputeOnlyWhenInputChanged()
+  {
+    var input = new Input<String, String>();
+    var computed = new AtomicInteger();
+    var length = new Query<String, Integer>(key -> {
+      computed.incrementAndGet();
+      return input.get(key).length();
+    });
+
+    input.set("a", "one");
+    input.set("b", "two");
+    assertEquals(3, (int) length.get("a"));
+    assertEquals(3, (int) length.get("a"));
+    assertEquals(1, computed.get());
+
+    input.set("b", "three");
+    assertEquals(3, (int) length.get("a"));
+    assertEquals(1, computed.get());
+
+    input.set("a", "four");
+    assertEquals(4, (int) length.get("a"));
+    assertEquals(2, computed.get());
+  }
+
+  @Test
+  public void UnchangedResultDoesNotPropagate()
+  {
+    var input = new Input<String, String>();
+    var length = new Query<String, Integer>(key -> input.get(key).length());
+    var computed = new AtomicInteger();
+    var isLong = new Query<String, Boolean>(key -> {
+      computed.incrementAndGet();
+      return length.get(key) > 10;
+    });
+
+    input.set("a", "short");
+    assertFalse(isLong.get("a"));
+    input.set("a", "tiny!");
+    assertFalse(isLong.get("a"));
+    assertEquals(1, computed.get());
+
+    input.set("a", "much longer text");
+    assertTrue(isLong.get("a"));
+    assertEquals(2, computed.get());
+  }
+}
@@ -0,0 +1,71 @@
+/*
+
+This file is part of the Fuzion language server protocol implementation.
+
+The Fuzion language server protocol implementation is free software: you can redistribute it
+and/or modify it under the terms of the GNU General Public License as published
+by the Free Software Foundation, version 3 of the License.
+
+The Fuzion language server protocol implementation is distributed in the hope that it will be
+useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public
+License for more details.
+
+You should have received a copy of the GNU General Public License along with The
+Fuzion language implementation.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+/*-----------------------------------------------------------------------
+ *
+ * Tokiwa Software GmbH, Germany
+ *
+ * Source of class SymbolIndexTest
+ *
+ *---------------------------------------------------------------------*/
+
+
+package test.flang.lsp.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import dev.flang.lsp.server.SourceText;
+import dev.flang.lsp.server.util.FuzionParser;
+import dev.flang.lsp.server.util.SymbolIndex;
+import test.flang.lsp.server.BaseTest;
+
+public class SymbolIndexTest extends BaseTest
+{
+  @Test
+  public void Find()
+  {
+    SourceText.setText(uri1, ManOrBoy);
+    FuzionParser.MainOrUniverse(uri1);
+
+    assertEquals("man_or_boy", SymbolIndex.Find("or_bo", 10).get(0).name());
+    assertEquals("man_or_boy", SymbolIndex.Find("man_or_bpy", 10).get(0).name());
+    assertEquals(uri1, SymbolIndex.Find("man_or_boy", 10).get(0).uri());
+    assertTrue(SymbolIndex.Find("mb", 100).stream().anyMatch(entry -> entry.name().equals("man_or_boy")));
+  }
+
+  @Test
+  public void Reindex()
+  {
+    SourceText.setText(uri2, """
+      reindex_before is
+      """);
+    FuzionParser.MainOrUniverse(uri2);
+    assertFalse(SymbolIndex.Find("reindex_before", 10).isEmpty());
+
+    SourceText.setText(uri2, """
+      reindex_after is
+      """);
+    FuzionParser.MainOrUniverse(uri2);
+    assertTrue(SymbolIndex.Find("reindex_before", 10).isEmpty());
+    assertFalse(SymbolIndex.Find("reindex_after", 10).isEmpty());
+
+    SymbolIndex.Remove(uri2);
+    assertTrue(SymbolIndex.Find("reindex_after", 10).isEmpty());
+  }
+
+}